@@ -2,7 +2,8 @@ package be.ugent;
 
 import be.ugent.algorithms.*;
 import be.ugent.benchmark.TestFileDatabase;
-import be.ugent.graphs.BasicGraph;
+import be.ugent.graphs.Graph;
+import be.ugent.graphs.GraphReader;
 import be.ugent.benchmark.Solution;
 import be.ugent.benchmark.SolutionReporter;
 import be.ugent.benchmark.Summary;
@@ -31,6 +32,9 @@ public class Benchmark {
     // Timeout in minutes for each test run
     private static final long TIMEOUT = 30;
 
+    // Seconds a cancelled run gets to return its best cover, after that its thread is interrupted
+    private static final long CANCEL_GRACE_PERIOD = 10;
+
     // Number of test runs for each algorithm and file
     private static final int TEST_RUNS = 5;
 
@@ -39,6 +43,26 @@ public class Benchmark {
     private static final boolean RUN_BMWVC = true;
     private static final boolean RUN_FIXED_SET_SEARCH = false;
     private static final boolean RUN_DLSWCC = false;
+    private static final boolean RUN_DLSWCC_PORTFOLIO = false;
+
+    // Flag to run the algorithms on the kernel of each graph instead of on the graph itself
+    private static final boolean KERNELIZE = false;
+
+    // Number of threads of the pricing method, 1 is the sequential single pass, more than 1 prices the edges in
+    // parallel rounds
+    private static final int PRICING_METHOD_THREADS = 1;
+
+    // Number of worker threads of the exact BMWVC search, 1 searches sequentially on the thread of the run
+    private static final int BMWVC_THREADS = 1;
+
+    // Number of solutions FixedSetSearch constructs at the same time, each on a worker thread of its own
+    private static final int FIXED_SET_SEARCH_THREADS = Runtime.getRuntime().availableProcessors();
+
+    // Flag to run DLSWCC next to the exact BMWVC search, to tighten its upper bound while it runs
+    private static final boolean BMWVC_BACKGROUND_SEARCH = true;
+
+    // Number of DLSWCC walkers of the portfolio, each on its own thread
+    private static final int DLSWCC_WALKERS = Runtime.getRuntime().availableProcessors();
 
     // Maximum number of iterations for the inexact algorithms
     private static final int MAX_ITERATIONS = 10_000_000;
@@ -152,16 +176,19 @@ public class Benchmark {
     // Map to store the summary for each of the algorithms and files
     private Map<String, List<Summary>> summaries = new HashMap<>();
 
+    // LP lower bound on the weight of a minimum vertex cover of each file, see HalfIntegralRelaxation
+    private final Map<String, Long> lowerBounds = new HashMap<>();
+
 
     public static void main(String[] args) {
         Benchmark benchmark = new Benchmark();
 
         if (RUN_PRICING_METHOD) {
-            benchmark.algorithms.add((int maxVertexCoverSize, int maxIterations) -> new PricingMethod());
+            benchmark.algorithms.add((int maxVertexCoverSize, int maxIterations) -> new PricingMethod(PRICING_METHOD_THREADS));
         }
 
         if (RUN_FIXED_SET_SEARCH) {
-            benchmark.algorithms.add((int maxVertexCoverSize, int maxIterations) -> new FixedSetSearch());
+            benchmark.algorithms.add((int maxVertexCoverSize, int maxIterations) -> new FixedSetSearch(FIXED_SET_SEARCH_THREADS));
         }
 
         if (RUN_DLSWCC) {
@@ -169,8 +196,27 @@ public class Benchmark {
 
         }
 
+        if (RUN_DLSWCC_PORTFOLIO) {
+            // every run gets its own seed, so the test runs do not repeat the same walks
+            SplittableRandom seeds = new SplittableRandom(RANDOM_SEED);
+            benchmark.algorithms.add((int maxVertexCoverSize, int maxIterations) ->
+                    new DLSWCCPortfolio(DLSWCC_WALKERS, maxIterations, seeds.nextLong()));
+        }
+
         if (RUN_BMWVC) {
-            benchmark.algorithms.add((int maxVertexCoverSize, int maxIterations) -> new BMWVC());
+            benchmark.algorithms.add((int maxVertexCoverSize, int maxIterations) -> {
+                BMWVC bmwvc = new BMWVC(BMWVC_THREADS);
+                if (BMWVC_BACKGROUND_SEARCH) {
+                    // runs until the search is done and interrupts it
+                    bmwvc.setBackgroundSearch(() -> new DLSWCC(Integer.MAX_VALUE));
+                }
+                return bmwvc;
+            });
+        }
+
+        if (KERNELIZE) {
+            benchmark.algorithms.replaceAll(algorithm -> (int maxVertexCoverSize, int maxIterations) ->
+                    new KernelizedAlgorithm(algorithm.initialize(maxVertexCoverSize, maxIterations)));
         }
 
 
@@ -183,12 +229,17 @@ public class Benchmark {
 
         for (WeightedVertexCoverAlgorithmInitializer algorithm : this.algorithms) {
 
-            String algorithmName = algorithm.initialize(0, 0).getClass().getSimpleName();
+            String algorithmName = getAlgorithmName(algorithm.initialize(0, 0));
             for (String filePath : this.filePaths) {
                 String key = algorithmName + "-" + filePath;
                 summaries.putIfAbsent(key, new ArrayList<>());
 
-                BasicGraph graph = new BasicGraph(filePath);
+                Graph graph = GraphReader.read(filePath);
+                lowerBounds.computeIfAbsent(filePath, file -> {
+                    long lowerBound = new HalfIntegralRelaxation(graph).getLowerBound();
+                    logger.info("LP lower bound of file {}: {}", file, lowerBound);
+                    return lowerBound;
+                });
                 for (int i = 0; i < TEST_RUNS; i++) {
                     String uniqueIdentifier = String.format("%s-%s-%d", algorithmName, filePath, i);
                     long startTime = System.currentTimeMillis(); // Record start time
@@ -196,11 +247,13 @@ public class Benchmark {
                     WeightedVertexCoverAlgorithm algorithmInstance = algorithm.initialize(
                             TestFileDatabase.getExpectedResult(filePath),
                             MAX_ITERATIONS);
+                    // the algorithm stops by itself at the deadline, so the next run does not share the CPU with it
+                    CancellationToken cancellationToken = CancellationToken.withTimeout(TIMEOUT, TimeUnit.MINUTES);
                     Future<BitSet> future =
                             executor.submit(
                                     () ->
                                     {
-                                        BasicGraph graphCopy = graph.copy();
+                                        Graph graphCopy = graph.copy();
                                         return algorithmInstance.calculateMinVertexCover(
                                                 graphCopy,
                                                 solution -> {
@@ -209,7 +262,8 @@ public class Benchmark {
 //                                                                uniqueIdentifier, solution.cardinality());
                                                     intermediateSolutionReporter.reportSolution(
                                                             solution, uniqueIdentifier);
-                                                });
+                                                },
+                                                cancellationToken);
                                     });
 
                     long executionTime = 0;
@@ -223,7 +277,17 @@ public class Benchmark {
                         logger.info("Processed file {},\ttime: {} ms", filePath, executionTime);
                     } catch (TimeoutException e) {
                         logger.warn("Processing of file {} timed out.", filePath);
-                        future.cancel(true); // Cancel the task
+                        cancellationToken.cancel();
+                        try {
+                            // the best cover found before the deadline
+                            BitSet bestCover = future.get(CANCEL_GRACE_PERIOD, TimeUnit.SECONDS);
+                            if (bestCover != null) {
+                                intermediateSolutionReporter.reportSolution(bestCover, uniqueIdentifier);
+                            }
+                        } catch (TimeoutException | InterruptedException | ExecutionException stillRunning) {
+                            logger.warn("Run on file {} did not stop, interrupting it.", filePath);
+                            future.cancel(true); // Cancel the task
+                        }
                         executionTime = TIMEOUT * 60 * 1000; // Set execution time to timeout
                     } catch (InterruptedException | ExecutionException e) {
                         logger.error(e); // Handle other exceptions
@@ -259,7 +323,8 @@ public class Benchmark {
         Map<String, Map<String, List<Summary>>> groupedSummaries = new HashMap<>();
         for (Map.Entry<String, List<Summary>> entry : summaries.entrySet()) {
             // Split the key into algorithm and file
-            String[] parts = entry.getKey().split("-");
+            // file names may contain a '-' themselves
+            String[] parts = entry.getKey().split("-", 2);
             String algorithm = parts[0];
             String file = parts[1];
             // Add the summaries to the map
@@ -283,6 +348,14 @@ public class Benchmark {
     }
 
 
+    // Name of the algorithm in the summaries, it must not contain a '-'
+    private static String getAlgorithmName(WeightedVertexCoverAlgorithm algorithm) {
+        if (algorithm instanceof KernelizedAlgorithm kernelizedAlgorithm) {
+            return "Kernelized" + getAlgorithmName(kernelizedAlgorithm.getAlgorithm());
+        }
+        return algorithm.getClass().getSimpleName();
+    }
+
     private void generateSummaryFile(String fileName, Map<String, Map<String, List<Summary>>> groupedSummaries) {
         fileName = fileName + ".txt";
         // Create a Path object from the file name
@@ -296,6 +369,8 @@ public class Benchmark {
                 for (Map.Entry<String, Map<String, List<Summary>>> fileEntry : groupedSummaries.entrySet()) {
                     // Write the name of the file to the file
                     writer.println("File: " + fileEntry.getKey());
+                    Long lowerBound = lowerBounds.get(fileEntry.getKey());
+                    writer.println("LP lower bound: " + (lowerBound == null ? "unknown" : lowerBound));
 
                     // Iterate over each file entry in the file's map
                     for (Map.Entry<String, List<Summary>> algorithmEntry : fileEntry.getValue().entrySet()) {
@@ -331,7 +406,7 @@ public class Benchmark {
 
                         // Write the mean, minimum, and maximum weight to the file
                         writer.println("\tWeight:");
-                        int optimalWeight = TestFileDatabase.getExpectedResult(algorithmEntry.getKey());
+                        int optimalWeight = TestFileDatabase.getExpectedResult(fileEntry.getKey());
                         if (optimalWeight != Integer.MAX_VALUE) {
                             writer.println("\t\toptimal value:\t" + optimalWeight);
                         } else {
@@ -371,7 +446,7 @@ public class Benchmark {
                 String[] headerParts = new String[partsPerAlgorithm * algorithms.size() + 1];
                 headerParts[0] = "File";
                 for (int i = 0; i < algorithms.size(); i++) {
-                    String algorithmName = algorithms.get(i).initialize(0, 0).getClass().getSimpleName();
+                    String algorithmName = getAlgorithmName(algorithms.get(i).initialize(0, 0));
                     headerParts[i * partsPerAlgorithm + 1] = algorithmName + "Mean Execution Time";
                     headerParts[i * partsPerAlgorithm + 2] = algorithmName + "Execution Time StdDev";
                     headerParts[i * partsPerAlgorithm + 3] = algorithmName + "Mean Weight";
@@ -1,7 +1,8 @@
 package be.ugent;
 
 import be.ugent.algorithms.WeightedVertexCoverAlgorithm;
-import be.ugent.graphs.BasicGraph;
+import be.ugent.graphs.Graph;
+import be.ugent.graphs.GraphReader;
 
 
 import be.ugent.benchmark.SolutionReporter;
@@ -89,7 +90,7 @@ public class Main {
         }
         for (String filePath : filePaths) {
             logger.info("Reading graph from file: {}", filePath);
-            BasicGraph graph = new BasicGraph(filePath);
+            Graph graph = GraphReader.read(filePath);
             logger.info("Running minimum vertex cover algorithm");
             SolutionReporter<BitSet> intermediateSolutionReporter = new SolutionReporter<>();
             BitSet minVertexCover = weightedVertexCoverAlgorithm.calculateMinVertexCover(graph,
@@ -1,9 +1,16 @@
 package be.ugent.algorithms;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.BitSet;
-import java.util.HashSet;
-import java.util.Set;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -11,323 +18,531 @@ import org.apache.logging.log4j.Logger;
 import be.ugent.benchmark.IntermediateSolutionReporter;
 import be.ugent.benchmark.SolutionReporter;
 import be.ugent.graphs.BasicGraph;
+import be.ugent.graphs.ComponentLabeller;
 
 public class BMWVC implements WeightedVertexCoverAlgorithm {
 
     private static final Logger logger = LogManager.getLogger(BMWVC.class);
 
-    // Set to keep track of removed nodes
-    Set<Integer> removed_nodes = new HashSet<Integer>();
+    private static final int DEFAULT_CUTOFF_DEPTH = 10;
+    // Iterations of the DLSWCC run that gives the first incumbent of a component
+    private static final int WARM_START_ITERATIONS = 1000;
+    // Components smaller than this are searched without warm start or background search
+    private static final int HEURISTIC_MIN_VERTICES = 32;
+    // Number of small components whose optimal cover is remembered
+    private static final int CACHE_CAPACITY = 1 << 16;
+
+    // Bounds that are tried in order at every search node, until one of them prunes it
+    private final LowerBound[] lowerBounds;
+    // Number of nodes pruned by each bound, and the number of search nodes visited
+    private final LongAdder[] prunedNodes;
+    private final LongAdder searchNodes = new LongAdder();
+    // Number of forests solved directly instead of searched
+    private final LongAdder forests = new LongAdder();
+
+    // Optimal covers of small components, shared by all searches of this instance
+    private final ComponentCache componentCache = new ComponentCache(CACHE_CAPACITY);
+
+    // Number of worker threads, 1 searches on the calling thread
+    private final int parallelism;
+    // Search nodes below this depth are not split into tasks anymore
+    private final int cutoffDepth;
+
+    // Token of the current run, every search node checks it
+    private CancellationToken cancellationToken = new CancellationToken();
+
+    // Heuristic that gives the first incumbent of every component, null to start from the whole component
+    private Supplier<WeightedVertexCoverAlgorithm> warmStart = () -> new DLSWCC(WARM_START_ITERATIONS);
+    // Heuristic that runs next to the search of every component and tightens its incumbent, null for none
+    private Supplier<WeightedVertexCoverAlgorithm> backgroundSearch;
 
     public BMWVC() {
+        this(1, 0);
+    }
 
+    /**
+     * @param lowerBounds Bounds used for pruning, cheap ones should go first since later ones are skipped once a
+     *                    node is pruned
+     */
+    public BMWVC(LowerBound... lowerBounds) {
+        this(1, 0, lowerBounds);
     }
 
-    private int satisfiesDegree0(BasicGraph graph) {
-        for (int vertex = 0; vertex < graph.getNumVertices(); vertex++) {
-            if (graph.degree(vertex) == 0 && !removed_nodes.contains(vertex)) {
-                return vertex;
-            }
-        }
-        return -1;
+    /**
+     * Parallel search with the default lower bounds
+     *
+     * @param parallelism Number of worker threads
+     */
+    public BMWVC(int parallelism) {
+        this(parallelism, DEFAULT_CUTOFF_DEPTH);
     }
 
-    private int satisfiesAdjecency(BasicGraph graph) {
-        for (int vertex = 0; vertex < graph.getNumVertices(); vertex++) {
-            if (graph.weight(vertex) >= graph.getWeight(graph.getAdjacencyBitSet(vertex))
-                    && !removed_nodes.contains(vertex)) {
-                return vertex;
-            }
+    public BMWVC(int parallelism, int cutoffDepth) {
+        this(parallelism, cutoffDepth, new CliqueCoverBound(), new LinearProgrammingBound());
+    }
+
+    /**
+     * @param parallelism Number of worker threads of the fork-join pool, 1 runs the search sequentially
+     * @param cutoffDepth Depth of the search tree up to which both branches become separate tasks, deeper subtrees
+     *                    are searched sequentially by the worker that owns them
+     * @param lowerBounds Bounds used for pruning, cheap ones should go first
+     */
+    public BMWVC(int parallelism, int cutoffDepth, LowerBound... lowerBounds) {
+        this.parallelism = parallelism;
+        this.cutoffDepth = cutoffDepth;
+        this.lowerBounds = lowerBounds;
+        this.prunedNodes = new LongAdder[lowerBounds.length];
+        for (int i = 0; i < lowerBounds.length; i++) {
+            this.prunedNodes[i] = new LongAdder();
         }
-        return -1;
     }
 
-    private int satisfiesDegree1(BasicGraph graph) {
-        for (int vertex = 0; vertex < graph.getNumVertices(); vertex++) {
-            BitSet adjecency = graph.getAdjacencyBitSet(vertex);
-            BitSet vertexesOneCardinality = new BitSet(graph.getNumVertices());
-            for (int i = adjecency.nextSetBit(0); i >= 0; i = adjecency.nextSetBit(i + 1)) {
-                if (graph.getAdjacencyBitSet(i).cardinality() == 1 && !removed_nodes.contains(i)) {
-                    vertexesOneCardinality.set(i);
-                }
+    /**
+     * @param warmStart Creates the heuristic whose cover of a component is the first incumbent of its search, or null
+     *                  to start every search from the whole component
+     */
+    public void setWarmStart(Supplier<WeightedVertexCoverAlgorithm> warmStart) {
+        this.warmStart = warmStart;
+    }
 
-            }
-            if (graph.getWeight(vertex) <= graph.getWeight(vertexesOneCardinality)
-                    && !removed_nodes.contains(vertex)) {
-                return vertex;
-            }
-        }
-        return -1;
+    /**
+     * @param backgroundSearch Creates the heuristic that runs in a thread of its own while a component is searched.
+     *                         Every cover it reports through its {@link IntermediateSolutionReporter} that is lighter
+     *                         than the incumbent replaces it. The thread is interrupted once the search ends. Null
+     *                         disables the background search.
+     */
+    public void setBackgroundSearch(Supplier<WeightedVertexCoverAlgorithm> backgroundSearch) {
+        this.backgroundSearch = backgroundSearch;
     }
 
-    private int[] satisfiesDegree2(BasicGraph graph) {
-        int[] v = { -1, -1 };
-        for (int vi = 0; vi < graph.getNumVertices(); vi++) {
-            if (removed_nodes.contains(vi))
-                continue;
-            for (int vj = vi + 1; vj < graph.getNumVertices(); vj++) {
-                if (removed_nodes.contains(vj))
-                    continue;
-                BitSet commonBitSet = (BitSet) graph.getAdjacencyBitSet(vj).clone();
-                commonBitSet.and(graph.getAdjacencyBitSet(vi));
-
-                for (int node = commonBitSet.nextSetBit(0); node >= 0; node = commonBitSet.nextSetBit(node + 1)) {
-                    if (graph.getAdjacencyBitSet(node).cardinality() > 2) {
-                        commonBitSet.clear(node);
-                    }
-                }
+    private BitSet reduce(BasicGraph graph) {
+        BitSet vertexCover = new BitSet(graph.getNumVertices());
+        new ReductionEngine(graph).reduce(vertexCover);
+        return vertexCover;
+    }
 
-                if (graph.getWeight(vi) + graph.getWeight(vj) <= graph.getWeight(commonBitSet)) {
-//                    printBitSet(commonBitSet, graph);
-//                    System.out.println(vi + ", " + vj);
-                    v[0] = vi;
-                    v[1] = vj;
-                    return v;
-                }
+    /*
+        Whether one of the lower bounds shows that the active vertices cannot be covered for less than
+        bestWeight - coverWeight
+     */
+    private boolean canPrune(BasicGraph graph, int coverWeight, int bestWeight) {
+        for (int i = 0; i < lowerBounds.length; i++) {
+            if (coverWeight + lowerBounds[i].calculate(graph) >= bestWeight) {
+                prunedNodes[i].increment();
+                return true;
             }
         }
-        return v;
+        return false;
     }
 
-    private void applyDegree0(BasicGraph graph, int vertex, BitSet cover) {
-        graph.removeVertex(vertex);
-        removed_nodes.add(vertex);
+    private int selectVertex(BasicGraph graph) {
+        return graph.maxDegreeVertex();
     }
 
-    private void applyAdjecency(BasicGraph graph, int vertex, BitSet cover) {
-        BitSet adjecencyBitSet = graph.getAdjacencyBitSet(vertex);
-        cover.or(adjecencyBitSet);
-        for (int i = adjecencyBitSet.nextSetBit(0); i >= 0; i = adjecencyBitSet.nextSetBit(i + 1)) {
-            graph.removeVertex(i);
-            removed_nodes.add(i);
+    /*
+        Label the components of the active vertices, and return them smallest first if there is more than one
+     */
+    private List<BitSet> findComponents(ComponentLabeller labeller) {
+        int numComponents = labeller.label();
+        List<BitSet> components = new ArrayList<>(numComponents);
+        if (numComponents > 1) {
+            Integer[] order = new Integer[numComponents];
+            for (int component = 0; component < numComponents; component++) {
+                order[component] = component;
+            }
+            Arrays.sort(order, Comparator.comparingInt(labeller::getComponentSize));
+            for (int component : order) {
+                components.add(labeller.getVertices(component));
+            }
         }
-        graph.removeVertex(vertex);
-        removed_nodes.add(vertex);
+        return components;
     }
 
-    private void applyDegree1(BasicGraph graph, int vertex, BitSet cover) {
-        BitSet adjecencBitSet = graph.getAdjacencyBitSet(vertex);
-        cover.set(vertex);
-        for (int node = 0; node < graph.getNumVertices(); node++) {
-            if (adjecencBitSet.get(node) && graph.getAdjacencyBitSet(node).cardinality() == 1) {
+    // Remove every active vertex outside the given component of the labeller
+    private void restrict(BasicGraph graph, ComponentLabeller labeller, int component) {
+        BitSet active = graph.getActiveVertices();
+        for (int node = active.nextSetBit(0); node >= 0; node = active.nextSetBit(node + 1)) {
+            if (labeller.getComponent(node) != component) {
                 graph.removeVertex(node);
-                removed_nodes.add(node);
             }
         }
-        graph.removeVertex(vertex);
-        removed_nodes.add(vertex);
     }
 
-    private void applyDegree2(BasicGraph graph, int vi, int vj, BitSet cover) {
-        BitSet commonBitSet = (BitSet) graph.getAdjacencyBitSet(vj).clone();
-        commonBitSet.and(graph.getAdjacencyBitSet(vi));
-
-        // Filter the common adjecencies on nodes with cardinality 2
-        for (int node = commonBitSet.nextSetBit(0); node >= 0; node = commonBitSet.nextSetBit(node + 1)) {
-            if (graph.getAdjacencyBitSet(node).cardinality() > 2) {
-                commonBitSet.clear(node);
+    // Smallest component first
+    private void sortBySize(int[] components, ComponentLabeller labeller) {
+        for (int i = 1; i < components.length; i++) {
+            int component = components[i];
+            int j = i;
+            while (j > 0 && labeller.getComponentSize(components[j - 1]) > labeller.getComponentSize(component)) {
+                components[j] = components[j - 1];
+                j--;
             }
+            components[j] = component;
         }
-        cover.set(vi);
-        cover.set(vj);
-        for (int vertex = commonBitSet.nextSetBit(0); vertex >= 0; vertex = commonBitSet.nextSetBit(vertex + 1)) {
-            graph.removeVertex(vertex);
-            removed_nodes.add(vertex);
-        }
-        graph.removeVertex(vi);
-        graph.removeVertex(vj);
-        removed_nodes.add(vi);
-        removed_nodes.add(vj);
     }
 
-    private BitSet reduce(BasicGraph graph) {
-        BitSet vertexCover = new BitSet(graph.getNumVertices());
-
-        int oldGraphSize;
-        int vi;
-        int[] v;
-
-        do {
-            oldGraphSize = graph.getNumVertices() - removed_nodes.size();
+    /*
+        Solve one component of the reduced graph on a graph of its own, numbered 0 .. size - 1, and return its cover
+        in the numbering of the given graph
+     */
+    private BitSet solveComponent(BasicGraph graph, BitSet component, boolean parallel, BitSet initialCover) {
+        BasicGraph subgraph = graph.inducedSubgraph(component);
+        // the whole component is a valid first cover
+        BitSet all = new BitSet(subgraph.getNumVertices());
+        all.set(0, subgraph.getNumVertices());
+        ComponentSearch componentSearch = new ComponentSearch(all, (int) subgraph.getTotalWeight());
+
+        if (initialCover != null) {
+            BitSet restricted = new BitSet(subgraph.getNumVertices());
+            int id = 0;
+            for (int vertex = component.nextSetBit(0); vertex >= 0; vertex = component.nextSetBit(vertex + 1)) {
+                restricted.set(id++, initialCover.get(vertex));
+            }
+            offerHeuristic(componentSearch, subgraph, restricted);
+        }
 
-            vi = satisfiesDegree0(graph);
-            if (vi != -1) {
-                applyDegree0(graph, vi, vertexCover);
+        Thread background = null;
+        if (subgraph.getNumVertices() >= HEURISTIC_MIN_VERTICES) {
+            if (warmStart != null) {
+                offerHeuristic(componentSearch, subgraph, warmStart.get().calculateMinVertexCover(subgraph, null,
+                        cancellationToken));
             }
-            vi = satisfiesAdjecency(graph);
-            if (vi != -1) {
-                applyAdjecency(graph, vi, vertexCover);
+            if (backgroundSearch != null) {
+                // the search changes its graph, so the heuristic gets a copy
+                BasicGraph copy = subgraph.copy();
+                WeightedVertexCoverAlgorithm heuristic = backgroundSearch.get();
+                // interrupting it only stops this thread, not the rest of the run
+                background = new Thread(() -> heuristic.calculateMinVertexCover(copy,
+                        solution -> componentSearch.offer(solution, copy.getWeight(solution)), cancellationToken));
+                background.setDaemon(true);
+                background.start();
             }
-            vi = satisfiesDegree1(graph);
-            if (vi != -1) {
-                applyDegree1(graph, vi, vertexCover);
+        }
+
+        BitSet cover = new BitSet(subgraph.getNumVertices());
+        try {
+            if (parallel) {
+                componentSearch.new SearchTask(subgraph, cover, 0, 0).compute();
+            } else {
+                ComponentLabeller labeller = new ComponentLabeller(subgraph);
+                labeller.reset();
+                componentSearch.search(subgraph, cover, 0, labeller, 0);
             }
-            v = satisfiesDegree2(graph);
-            if (v[0] != -1 && v[1] != -1) {
-                applyDegree2(graph, v[0], v[1], vertexCover);
+        } finally {
+            if (background != null) {
+                // wait until it stops, so it cannot offer a cover while the result is read
+                background.interrupt();
+                joinUninterruptibly(background);
             }
+        }
 
-        } while (oldGraphSize != (graph.getNumVertices() - removed_nodes.size()));
-
-        return vertexCover;
-
-    }
-
-    private void printBitSet(BitSet set, BasicGraph graph) {
-        System.out.print("    [");
-        for (int node = 0; node < graph.getNumVertices(); node++) {
-            if (set.get(node)) {
-                System.out.print(node + ", ");
+        BitSet best = componentSearch.getBest();
+        BitSet result = new BitSet(graph.getNumVertices());
+        int id = 0;
+        for (int vertex = component.nextSetBit(0); vertex >= 0; vertex = component.nextSetBit(vertex + 1)) {
+            if (best.get(id)) {
+                result.set(vertex);
             }
+            id++;
         }
-        System.out.println("]");
+        return result;
     }
 
-    private int calculateLowerBound(ArrayList<BitSet> disjointed, BasicGraph graph) {
-        int sum = 0;
-        for (BitSet clique : disjointed) {
-            int max = Integer.MIN_VALUE;
-            for (int i = clique.nextSetBit(0); i >= 0; i = clique.nextSetBit(i + 1)) {
-                if (graph.getWeight(i) > max) {
-                    max = graph.getWeight(i);
-                }
+    // The heuristic stops within one iteration once its thread is interrupted
+    private static void joinUninterruptibly(Thread thread) {
+        boolean interrupted = false;
+        while (true) {
+            try {
+                thread.join();
+                break;
+            } catch (InterruptedException e) {
+                interrupted = true;
             }
-            sum += graph.getWeight(clique) - max;
         }
-        return sum;
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
     }
 
-    private void growDisjointed(int vertex, BitSet disjoint, BasicGraph graph, BitSet visited) {
-        BitSet adjecency = graph.getAdjacencyBitSet(vertex);
-        disjoint.set(vertex);
-        visited.set(vertex);
-        for (int i = adjecency.nextSetBit(0); i >= 0; i = adjecency.nextSetBit(i + 1)) {
-            if (!visited.get(i)) {
-                growDisjointed(i, disjoint, graph, visited);
-            }
+    // Use a cover found outside the search as incumbent, if it is one and it is lighter
+    private void offerHeuristic(ComponentSearch componentSearch, BasicGraph subgraph, BitSet cover) {
+        if (cover != null && subgraph.isVertexCover(cover)) {
+            componentSearch.offer(cover, subgraph.getWeight(cover));
         }
     }
 
-    public ArrayList<BitSet> findDisjointed(BasicGraph graph) {
-        BitSet visited = new BitSet(graph.getNumVertices());
+    /*
+        Branch and bound over the active vertices of a graph. Keeps the best cover found so far, and its weight. The
+        weight is read without locking by every worker to prune, both are only changed together in offer().
+     */
+    private class ComponentSearch {
+
+        // only replaced in offer(), never changed in place
+        private volatile BitSet best;
+        private final AtomicInteger bestWeight;
+
+        // best may be null, then only covers lighter than bestWeight are accepted and best stays null without one
+        ComponentSearch(BitSet best, int bestWeight) {
+            this.best = best;
+            this.bestWeight = new AtomicInteger(bestWeight);
+        }
 
-        for (int i : removed_nodes) {
-            visited.set(i);
+        // Replace the best cover if the given one is lighter
+        synchronized void offer(BitSet cover, int coverWeight) {
+            if (coverWeight < bestWeight.get()) {
+                best = (BitSet) cover.clone();
+                bestWeight.set(coverWeight);
+            }
         }
-        ArrayList<BitSet> disjointed = new ArrayList<BitSet>();
 
-        for (int vertex = visited.nextClearBit(0); vertex < graph.getNumVertices(); vertex = visited
-                .nextClearBit(vertex + 1)) {
-            BitSet disjoint = new BitSet(graph.getNumVertices());
-            growDisjointed(vertex, disjoint, graph, visited);
-            disjointed.add(disjoint);
+        synchronized BitSet getBest() {
+            return best;
         }
-        return disjointed;
-    }
 
-    private int selectVertex(BasicGraph graph) {
-        int vertexMinDegree = -1;
-        int maxDegree = Integer.MIN_VALUE;
-        for (int vertex = 0; vertex < graph.getNumVertices(); vertex++) {
-            if (!removed_nodes.contains(vertex)) {
-                int degree = graph.getAdjacencyBitSet(vertex).cardinality();
-                if (degree > maxDegree) {
-                    maxDegree = degree;
-                    vertexMinDegree = vertex;
+        /*
+            Branch on the vertex with the highest degree: either it is in the cover, or all of its neighbours are.
+            Both branches run in place on the same graph, removals are undone through the trail of the graph on the
+            way back, so no graph or cover is copied per search node.
+
+            The active vertices are the vertices of one component of the labeller, as it was before the removals of
+            the branch that led here. Only that component is split again, and the split is undone on the way back.
+         */
+        void search(BasicGraph graph, BitSet cover, int coverWeight, ComponentLabeller labeller, int component) {
+            searchNodes.increment();
+            if (cancellationToken.isCancelled()) {
+                // the best cover so far stays the result
+                return;
+            }
+
+            if (graph.getNumActiveVertices() == 0) { // If the vertex cover is complete
+                if (coverWeight < bestWeight.get()) { // And is better then the current one
+                    offer(cover, coverWeight);
                 }
+                return;
+            }
+
+            if (coverWeight >= bestWeight.get() || canPrune(graph, coverWeight, bestWeight.get())) {
+                return;
+            }
+
+            int size = labeller.getComponentSize(component);
+            int numComponents = labeller.getNumComponents();
+            int pieces = labeller.split(component);
+            try {
+                branch(graph, cover, coverWeight, labeller, component, pieces, numComponents);
+            } finally {
+                labeller.restore(component, size, numComponents);
             }
         }
-        return vertexMinDegree;
-    }
 
-    private BitSet search(BasicGraph graph, BitSet cover, BitSet best) {
-        // System.out.print("\n");
-        // System.out.print("current: ");
-        // printBitSet(cover, graph);
-        // System.out.print("best: ");
-        // printBitSet(best, graph);
+        /*
+            The component fell apart in the given number of pieces: itself and the new labels from firstNewLabel on
+         */
+        private void branch(BasicGraph graph, BitSet cover, int coverWeight, ComponentLabeller labeller,
+                            int component, int pieces, int firstNewLabel) {
+            if (graph.getNumActiveEdges() == graph.getNumActiveVertices() - pieces) {
+                // every component is a tree, which is solved in linear time
+                forests.increment();
+                offerSolved(graph, cover, coverWeight, TreeCover.solve(graph));
+                return;
+            }
+            if (pieces > 1) {
+                int[] components = new int[pieces];
+                components[0] = component;
+                for (int i = 1; i < pieces; i++) {
+                    components[i] = firstNewLabel + i - 1;
+                }
+                searchComponents(graph, cover, coverWeight, components, labeller);
+                return;
+            }
+            if (graph.getNumActiveVertices() <= ComponentCache.MAX_VERTICES) {
+                offerSolved(graph, cover, coverWeight, componentCache.solve(graph));
+                return;
+            }
 
-        if (removed_nodes.size() >= graph.getNumVertices()) { // If the vertex cover is complete
-            if (graph.getWeight(cover) < graph.getWeight(best)) { // And is better then the current one
-                return (BitSet) cover.clone();
-            } else {
-                return (BitSet) best.clone();
+            int vertex = selectVertex(graph);
+            int trailSize = graph.getTrailSize();
+
+            graph.removeVertex(vertex);
+            cover.set(vertex);
+            search(graph, cover, coverWeight + graph.getWeight(vertex), labeller, component);
+            cover.clear(vertex);
+
+            // the row of a removed vertex is no longer touched, so it still holds all neighbours
+            BitSet adjec = graph.getAdjacencyBitSet(vertex);
+            for (int node = adjec.nextSetBit(0); node >= 0; node = adjec.nextSetBit(node + 1)) {
+                graph.removeVertex(node);
+            }
+            cover.or(adjec);
+            search(graph, cover, coverWeight + graph.getWeight(adjec), labeller, component);
+            cover.andNot(adjec);
+
+            graph.restoreVertices(trailSize);
+        }
+
+        // Complete the cover with an optimal cover of the active vertices
+        private void offerSolved(BasicGraph graph, BitSet cover, int coverWeight, BitSet solution) {
+            int weight = coverWeight + graph.getWeight(solution);
+            if (weight < bestWeight.get()) {
+                BitSet combined = (BitSet) cover.clone();
+                combined.or(solution);
+                offer(combined, weight);
             }
         }
 
-        ArrayList<BitSet> disjointed = findDisjointed(graph);
-        // if (calculateLowerBound(disjointed, graph)
-        // + graph.getWeight(cover) >= graph.getWeight(best)) {
-        if (graph.getWeight(cover) > graph.getWeight(best)) {
-            // System.out.println("lowerbound prune");
-            return (BitSet) best.clone();
+        /*
+            The active vertices fell apart, so instead of branching over all of them at once, every component is
+            searched on its own and their weights are added. A component may only use what the components before it
+            left of the bound, if it cannot stay below that no improvement is possible.
+         */
+        private void searchComponents(BasicGraph graph, BitSet cover, int coverWeight, int[] components,
+                                      ComponentLabeller labeller) {
+            sortBySize(components, labeller);
+            BitSet combined = (BitSet) cover.clone();
+            int totalWeight = coverWeight;
+            for (int component : components) {
+                int trailSize = graph.getTrailSize();
+                restrict(graph, labeller, component);
+                ComponentSearch componentSearch = new ComponentSearch(null, bestWeight.get() - totalWeight);
+                componentSearch.search(graph, new BitSet(graph.getNumVertices()), 0, labeller, component);
+                graph.restoreVertices(trailSize);
+                BitSet componentBest = componentSearch.getBest();
+                if (componentBest == null) {
+                    return;
+                }
+                combined.or(componentBest);
+                totalWeight += componentSearch.bestWeight.get();
+            }
+            offer(combined, totalWeight);
         }
 
-        int vertex = selectVertex(graph);
-
-        BasicGraph newGraph = graph.copy();
-        Set<Integer> oldRemovedNodes = new HashSet<>();
-        oldRemovedNodes.addAll(removed_nodes);
-
-        removed_nodes.add(vertex);
-        newGraph.removeVertex(vertex);
-        cover.set(vertex);
-        best = search(newGraph, (BitSet) cover.clone(), best);
-
-        removed_nodes = new HashSet<>();
-        removed_nodes.addAll(oldRemovedNodes);
-        removed_nodes.add(vertex);
-        newGraph = graph.copy();
-        newGraph.removeVertex(vertex);
-        cover.clear(vertex);
-        BitSet adjec = graph.getAdjacencyBitSet(vertex);
-        for (int node = adjec.nextSetBit(0); node >= 0; node = adjec.nextSetBit(node + 1)) {
-            newGraph.removeVertex(node);
-            removed_nodes.add(node);
+        /*
+            The same search as search(), but as long as the depth is below the cutoff the branch that takes the
+            vertex is forked as a task of its own, on a copy of the graph and the cover. Idle workers steal those
+            tasks, all of them prune against the shared best weight.
+         */
+        private class SearchTask extends RecursiveAction {
+
+            // tasks are never serialized, RecursiveAction is Serializable through ForkJoinTask
+            private static final long serialVersionUID = 1L;
+
+            private final BasicGraph graph;
+            private final BitSet cover;
+            private final int coverWeight;
+            private final int depth;
+
+            // the task owns the graph and the cover, and changes them without restoring
+            SearchTask(BasicGraph graph, BitSet cover, int coverWeight, int depth) {
+                this.graph = graph;
+                this.cover = cover;
+                this.coverWeight = coverWeight;
+                this.depth = depth;
+            }
+
+            @Override
+            protected void compute() {
+                if (depth >= cutoffDepth) {
+                    ComponentLabeller labeller = new ComponentLabeller(graph);
+                    labeller.reset();
+                    search(graph, cover, coverWeight, labeller, 0);
+                    return;
+                }
+                searchNodes.increment();
+                if (cancellationToken.isCancelled()) {
+                    return;
+                }
+                if (graph.getNumActiveVertices() == 0) {
+                    offer(cover, coverWeight);
+                    return;
+                }
+                if (coverWeight >= bestWeight.get() || canPrune(graph, coverWeight, bestWeight.get())) {
+                    return;
+                }
+
+                int vertex = selectVertex(graph);
+
+                BasicGraph takeGraph = graph.copy();
+                takeGraph.removeVertex(vertex);
+                BitSet takeCover = (BitSet) cover.clone();
+                takeCover.set(vertex);
+                SearchTask take = new SearchTask(takeGraph, takeCover, coverWeight + graph.getWeight(vertex),
+                        depth + 1);
+                take.fork();
+
+                // the vertex leaves the graph in this branch as well, its row then keeps all of its neighbours
+                graph.removeVertex(vertex);
+                BitSet adjec = graph.getAdjacencyBitSet(vertex);
+                int neighbourWeight = graph.getWeight(adjec);
+                for (int node = adjec.nextSetBit(0); node >= 0; node = adjec.nextSetBit(node + 1)) {
+                    graph.removeVertex(node);
+                }
+                cover.or(adjec);
+                new SearchTask(graph, cover, coverWeight + neighbourWeight, depth + 1).compute();
+
+                take.join();
+            }
         }
-        cover.or(adjec);
-        return search(newGraph, (BitSet) cover.clone(), best);
     }
 
     @Override
-    public BitSet calculateMinVertexCover(BasicGraph graph,
-            IntermediateSolutionReporter intermediateSolutionReporter) {
+    public BitSet calculateMinVertexCover(BasicGraph graph, IntermediateSolutionReporter intermediateSolutionReporter,
+                                          CancellationToken cancellationToken) {
+        return calculateMinVertexCover(graph, intermediateSolutionReporter, cancellationToken, null);
+    }
+
+    /**
+     * Exact minimum weighted vertex cover, starting from a known cover. Once the token is cancelled, the best cover
+     * found so far is returned, it is not necessarily minimal then.
+     *
+     * @param initialCover A vertex cover of the graph, its weight is the first upper bound of the search. Null to
+     *                     start from the warm start heuristic only
+     */
+    public BitSet calculateMinVertexCover(BasicGraph graph, IntermediateSolutionReporter intermediateSolutionReporter,
+                                          CancellationToken cancellationToken, BitSet initialCover) {
+        this.cancellationToken = cancellationToken;
+        int initialTrailSize = graph.getTrailSize();
+        searchNodes.reset();
+        forests.reset();
+        for (LongAdder pruned : prunedNodes) {
+            pruned.reset();
+        }
 
         BitSet S = reduce(graph);
 
-//        System.out.println("Reduced graph by: " + removed_nodes.size() + " nodes");
-//        System.out.print("[");
-//        for (int node : removed_nodes) {
-//            System.out.print(node + ", ");
-//        }
-//        System.out.println("]");// printBitSet(S, graph);
-
-        ArrayList<BitSet> disjointed = findDisjointed(graph);
-        // Remember full graph
-        Set<Integer> nodesRemovedThroughReduction = new HashSet<>();
-        nodesRemovedThroughReduction.addAll(removed_nodes);
-        for (BitSet subGraph : disjointed) {
-            BitSet Sb = new BitSet(graph.getNumVertices());
-            BitSet Si = new BitSet(graph.getNumVertices());
-            Sb.set(0, graph.getNumVertices());
-
-            BasicGraph disjoint = graph.copy();
-            for (int node = 0; node < graph.getNumVertices(); node++) {
-                if (!subGraph.get(node)) {
-                    disjoint.removeVertex(node);
-                    removed_nodes.add(node);
+        List<BitSet> components = findComponents(new ComponentLabeller(graph));
+        if (components.isEmpty() && graph.getNumActiveVertices() > 0) {
+            // the reduced graph is connected
+            components.add((BitSet) graph.getActiveVertices().clone());
+        }
+        if (parallelism > 1) {
+            // components are independent, so they are solved at the same time and share the workers
+            ForkJoinPool pool = new ForkJoinPool(parallelism);
+            try {
+                List<ForkJoinTask<BitSet>> tasks = new ArrayList<>();
+                for (BitSet component : components) {
+                    tasks.add(pool.submit(() -> solveComponent(graph, component, true, initialCover)));
+                }
+                for (ForkJoinTask<BitSet> task : tasks) {
+                    S.or(task.join());
                 }
+            } finally {
+                pool.shutdown();
+            }
+        } else {
+            for (BitSet component : components) {
+                S.or(solveComponent(graph, component, false, initialCover));
             }
-            BitSet set = search(disjoint, Si, subGraph);
-//            System.out.print("Solution for graph: ");
-//            printBitSet(subGraph, graph);
-//            System.out.print(": ");
-//            printBitSet(set, graph);
-            S.or(set);
-            removed_nodes = new HashSet<>();
-            removed_nodes.addAll(nodesRemovedThroughReduction);
         }
 
+        // leave the graph as it was handed to us
+        graph.restoreVertices(initialTrailSize);
+
+        logger.info("Searched {} nodes in {} components", searchNodes.sum(), components.size());
+        for (int i = 0; i < lowerBounds.length; i++) {
+            logger.info("{} pruned {} nodes", lowerBounds[i].getClass().getSimpleName(), prunedNodes[i].sum());
+        }
+        logger.info("Solved {} forests directly, component cache has {} hits and {} misses", forests.sum(),
+                componentCache.getHits(), componentCache.getMisses());
         return S;
     }
 
@@ -0,0 +1,52 @@
+package be.ugent.algorithms;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tells a running algorithm to stop and return the best cover it has found so far. A token is cancelled once
+ * {@link #cancel()} is called, once its deadline has passed, or when the thread that checks it is interrupted.
+ * <p>
+ * Algorithms check {@link #isCancelled()} in their main loops. A token can be shared by all threads of one run, so
+ * cancelling it also stops worker threads that the caller cannot interrupt. An interrupt only stops the interrupted
+ * thread, so a helper thread can be interrupted without cancelling the rest of the run.
+ */
+public class CancellationToken {
+
+    // cancels the tokens whose deadline has passed, so checking a token never reads the clock. A daemon thread, so
+    // pending deadlines do not keep the JVM alive
+    private static final ScheduledExecutorService DEADLINES = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "cancellation-deadlines");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private volatile boolean cancelled;
+
+    /**
+     * A token without a deadline, it is only cancelled by {@link #cancel()} or an interrupt
+     */
+    public CancellationToken() {
+    }
+
+    /**
+     * @return A token that is cancelled once the given time has passed from now on
+     */
+    public static CancellationToken withTimeout(long timeout, TimeUnit unit) {
+        CancellationToken token = new CancellationToken();
+        DEADLINES.schedule(token::cancel, timeout, unit);
+        return token;
+    }
+
+    public void cancel() {
+        cancelled = true;
+    }
+
+    /**
+     * @return Whether the algorithm should stop, cheap enough to call once per iteration of a main loop
+     */
+    public boolean isCancelled() {
+        return cancelled || Thread.currentThread().isInterrupted();
+    }
+}
@@ -0,0 +1,112 @@
+package be.ugent.algorithms;
+
+import be.ugent.graphs.BasicGraph;
+
+import java.util.BitSet;
+
+/**
+ * Weighted clique cover bound: a vertex cover contains all vertices of a clique except at most one, so for every
+ * partition of the vertices into cliques K the sum of w(K) - max w(K) is a lower bound. The cliques are the colour
+ * classes of a greedy colouring of the complement graph.
+ * <p>
+ * The complement is never built: a vertex fits in a colour class if it is adjacent to every vertex of the class in the
+ * graph itself, so the candidates of a class are narrowed down with the adjacency rows of its vertices. Only the active
+ * vertices are coloured, and the scratch space of every thread is kept for the whole search, so a call allocates
+ * nothing once the scratch space is large enough.
+ */
+public class CliqueCoverBound implements LowerBound {
+
+    // BMWVC searches several subtrees at the same time, so every thread colours in scratch space of its own
+    private final ThreadLocal<Scratch> scratch = ThreadLocal.withInitial(Scratch::new);
+
+    @Override
+    public int calculate(BasicGraph graph) {
+        Scratch space = scratch.get();
+        space.ensureCapacity(graph.getNumVertices());
+        BitSet active = graph.getActiveVertices();
+        int[] order = space.order;
+        int size = orderByDegree(graph, active, space);
+
+        BitSet uncoloured = space.uncoloured;
+        BitSet candidates = space.candidates;
+        uncoloured.clear();
+        uncoloured.or(active);
+        int bound = 0;
+        // the first vertex of the order that is not coloured yet, every class starts with it
+        int first = 0;
+        while (first < size) {
+            // greedy colour class of the complement: take every vertex of the order that is adjacent to all vertices
+            // taken so far, which is a clique of the graph
+            candidates.clear();
+            candidates.or(uncoloured);
+            int sum = 0;
+            int max = 0;
+            for (int i = first; i < size; i++) {
+                int vertex = order[i];
+                if (!candidates.get(vertex)) {
+                    continue;
+                }
+                uncoloured.clear(vertex);
+                candidates.and(graph.getAdjacencyBitSet(vertex));
+                sum += graph.getWeight(vertex);
+                max = Math.max(max, graph.getWeight(vertex));
+                if (candidates.isEmpty()) {
+                    break;
+                }
+            }
+            bound += sum - max;
+            while (first < size && !uncoloured.get(order[first])) {
+                first++;
+            }
+        }
+        return bound;
+    }
+
+    /*
+        Fill the order with the active vertices by decreasing degree in the complement, which is increasing degree in
+        the graph, ties in increasing order of id. A counting sort, so nothing is boxed
+     */
+    private static int orderByDegree(BasicGraph graph, BitSet active, Scratch space) {
+        int[] start = space.start;
+        int maxDegree = 0;
+        for (int vertex = active.nextSetBit(0); vertex >= 0; vertex = active.nextSetBit(vertex + 1)) {
+            int degree = graph.degree(vertex);
+            start[degree + 1]++;
+            maxDegree = Math.max(maxDegree, degree);
+        }
+        for (int degree = 0; degree <= maxDegree; degree++) {
+            start[degree + 1] += start[degree];
+        }
+        int size = start[maxDegree + 1];
+        for (int vertex = active.nextSetBit(0); vertex >= 0; vertex = active.nextSetBit(vertex + 1)) {
+            space.order[start[graph.degree(vertex)]++] = vertex;
+        }
+        // the positions were moved up by the fill, only the used ones are cleared for the next call
+        for (int degree = 0; degree <= maxDegree + 1; degree++) {
+            start[degree] = 0;
+        }
+        return size;
+    }
+
+    // Arrays and sets of one thread, large enough for graphs of capacity vertices
+    private static class Scratch {
+
+        private int capacity = -1;
+        private int[] order;
+        // start[d + 1] counts the vertices of degree d during the counting sort, it is all zeroes between calls
+        private int[] start;
+        private BitSet uncoloured;
+        private BitSet candidates;
+
+        void ensureCapacity(int numVertices) {
+            if (numVertices <= capacity) {
+                return;
+            }
+            capacity = numVertices;
+            order = new int[numVertices];
+            start = new int[numVertices + 2];
+            uncoloured = new BitSet(numVertices);
+            candidates = new BitSet(numVertices);
+        }
+    }
+}
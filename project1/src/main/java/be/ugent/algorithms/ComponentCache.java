@@ -0,0 +1,241 @@
+package be.ugent.algorithms;
+
+import be.ugent.graphs.BasicGraph;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Optimal covers of small components, so the same component is not solved again every time the search runs into it.
+ * <p>
+ * A component is encoded by ordering its vertices and listing the weights and adjacency rows in that order. The order
+ * comes from colour refinement: vertices start out coloured by (degree, weight) and are split by the colours of their
+ * neighbours until that changes nothing, and remaining ties are broken by singling out one vertex and refining again.
+ * The same vertex set always gets the same key, in any branch. Isomorphic components elsewhere in the graph, like
+ * paths, stars and other small trees, usually get the same key as well, but that is not guaranteed, since the vertex
+ * that is singled out is chosen by id. Components that are not cached yet are solved exactly by a maximum weight
+ * independent set search on bitmasks. The least recently used entries are evicted once the cache is full. The cache
+ * is thread safe.
+ */
+public class ComponentCache {
+
+    // adjacency rows of cached components are stored as int masks
+    public static final int MAX_VERTICES = 16;
+
+    // optimal cover of every cached component, as a mask over the vertex order of its key
+    private final Map<Key, Integer> covers;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    /**
+     * @param capacity Maximum number of components in the cache
+     */
+    public ComponentCache(int capacity) {
+        this.covers = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Integer> eldest) {
+                return size() > capacity;
+            }
+        });
+    }
+
+    /**
+     * @param graph Graph with at most {@link #MAX_VERTICES} active vertices, it is not changed
+     * @return A minimum weight vertex cover of the active vertices
+     */
+    public BitSet solve(BasicGraph graph) {
+        BitSet active = graph.getActiveVertices();
+        int size = graph.getNumActiveVertices();
+        // the component with its vertices numbered by increasing id
+        int[] vertices = new int[size];
+        int[] positions = new int[graph.getNumVertices()];
+        int id = 0;
+        for (int vertex = active.nextSetBit(0); vertex >= 0; vertex = active.nextSetBit(vertex + 1)) {
+            positions[vertex] = id;
+            vertices[id++] = vertex;
+        }
+        int[] weights = new int[size];
+        int[] rows = new int[size];
+        for (int i = 0; i < size; i++) {
+            weights[i] = graph.getWeight(vertices[i]);
+            BitSet adjacency = graph.getAdjacencyBitSet(vertices[i]);
+            for (int node = adjacency.nextSetBit(0); node >= 0; node = adjacency.nextSetBit(node + 1)) {
+                rows[i] |= 1 << positions[node];
+            }
+        }
+
+        int[] colour = refinedColours(weights, rows);
+        // order[c] is the vertex of colour c, every colour is used once
+        int[] order = new int[size];
+        for (int i = 0; i < size; i++) {
+            order[colour[i]] = vertices[i];
+        }
+        // {size, weights in order, rows in order}
+        int[] data = new int[1 + 2 * size];
+        data[0] = size;
+        for (int i = 0; i < size; i++) {
+            data[1 + colour[i]] = weights[i];
+            int row = 0;
+            for (int remaining = rows[i]; remaining != 0; remaining &= remaining - 1) {
+                row |= 1 << colour[Integer.numberOfTrailingZeros(remaining)];
+            }
+            data[1 + size + colour[i]] = row;
+        }
+
+        Key key = new Key(data);
+        Integer mask = covers.get(key);
+        if (mask == null) {
+            misses.increment();
+            int independentSet = (int) maxIndependentSet((1 << size) - 1,
+                    Arrays.copyOfRange(data, 1 + size, 1 + 2 * size), Arrays.copyOfRange(data, 1, 1 + size));
+            mask = ~independentSet & ((1 << size) - 1);
+            covers.put(key, mask);
+        } else {
+            hits.increment();
+        }
+
+        BitSet cover = new BitSet(graph.getNumVertices());
+        for (int i = 0; i < size; i++) {
+            if ((mask & (1 << i)) != 0) {
+                cover.set(order[i]);
+            }
+        }
+        return cover;
+    }
+
+    /*
+        Colour refinement of a component given by the weights and rows of its vertices: a distinct colour from 0 up
+        to the number of vertices for every vertex. The colours only depend on the structure of the component, except
+        for which vertex of a tied class is singled out, that is the one with the lowest index.
+     */
+    private static int[] refinedColours(int[] weights, int[] rows) {
+        int size = weights.length;
+        int[][] signatures = new int[size][];
+        for (int i = 0; i < size; i++) {
+            signatures[i] = new int[]{Integer.bitCount(rows[i]), weights[i]};
+        }
+        int[] colour = new int[size];
+        int numColours = rank(signatures, colour);
+        while (true) {
+            // split the classes by the colours of the neighbours until no class splits any more
+            int previous;
+            do {
+                previous = numColours;
+                for (int i = 0; i < size; i++) {
+                    int[] signature = new int[1 + Integer.bitCount(rows[i])];
+                    signature[0] = colour[i];
+                    int count = 1;
+                    for (int remaining = rows[i]; remaining != 0; remaining &= remaining - 1) {
+                        signature[count++] = colour[Integer.numberOfTrailingZeros(remaining)];
+                    }
+                    Arrays.sort(signature, 1, count);
+                    signatures[i] = signature;
+                }
+                numColours = rank(signatures, colour);
+            } while (numColours > previous);
+            if (numColours == size) {
+                return colour;
+            }
+
+            // single out the first vertex of the lowest colour that is still shared
+            int[] members = new int[size];
+            int tied = -1;
+            for (int i = 0; i < size; i++) {
+                if (++members[colour[i]] == 2 && (tied == -1 || colour[i] < tied)) {
+                    tied = colour[i];
+                }
+            }
+            boolean singled = false;
+            for (int i = 0; i < size; i++) {
+                boolean single = !singled && colour[i] == tied;
+                singled |= single;
+                signatures[i] = new int[]{colour[i], single ? 1 : 0};
+            }
+            numColours = rank(signatures, colour);
+        }
+    }
+
+    /*
+        Give every vertex the rank of its signature among the distinct signatures, in lexicographic order. Returns the
+        number of distinct signatures.
+     */
+    private static int rank(int[][] signatures, int[] colour) {
+        Integer[] byComparison = new Integer[signatures.length];
+        for (int i = 0; i < signatures.length; i++) {
+            byComparison[i] = i;
+        }
+        Arrays.sort(byComparison, (first, second) -> Arrays.compare(signatures[first], signatures[second]));
+        int numColours = 0;
+        for (int i = 0; i < signatures.length; i++) {
+            if (i > 0 && Arrays.compare(signatures[byComparison[i - 1]], signatures[byComparison[i]]) != 0) {
+                numColours++;
+            }
+            colour[byComparison[i]] = numColours;
+        }
+        return signatures.length == 0 ? 0 : numColours + 1;
+    }
+
+    /*
+        Maximum weight independent set within the mask, by branching on the vertex with the most neighbours in the
+        mask. Returns the weight in the upper and the set in the lower 32 bits.
+     */
+    private static long maxIndependentSet(int mask, int[] rows, int[] weights) {
+        int vertex = -1;
+        int maxDegree = 0;
+        for (int remaining = mask; remaining != 0; remaining &= remaining - 1) {
+            int node = Integer.numberOfTrailingZeros(remaining);
+            int degree = Integer.bitCount(rows[node] & mask);
+            if (degree > maxDegree) {
+                maxDegree = degree;
+                vertex = node;
+            }
+        }
+        if (vertex == -1) {
+            // no edges left, so all remaining vertices are independent
+            long weight = 0;
+            for (int remaining = mask; remaining != 0; remaining &= remaining - 1) {
+                weight += weights[Integer.numberOfTrailingZeros(remaining)];
+            }
+            return weight << 32 | (mask & 0xFFFFFFFFL);
+        }
+        int rest = mask & ~(1 << vertex);
+        long without = maxIndependentSet(rest, rows, weights);
+        long with = maxIndependentSet(rest & ~rows[vertex], rows, weights);
+        with += ((long) weights[vertex] << 32) | (1L << vertex);
+        return (with >>> 32) > (without >>> 32) ? with : without;
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    // Encoded component, compared by content
+    private static final class Key {
+
+        private final int[] data;
+        private final int hash;
+
+        Key(int[] data) {
+            this.data = data;
+            this.hash = Arrays.hashCode(data);
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof Key && Arrays.equals(data, ((Key) other).data);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
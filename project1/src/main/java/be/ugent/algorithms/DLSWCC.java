@@ -2,25 +2,43 @@ package be.ugent.algorithms;
 
 import be.ugent.benchmark.IntermediateSolutionReporter;
 import be.ugent.graphs.BasicGraph;
+import be.ugent.graphs.EdgeIndex;
+import be.ugent.graphs.Graph;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import java.util.Arrays;
 import java.util.BitSet;
-import java.util.List;
+import java.util.Comparator;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class DLSWCC implements WeightedVertexCoverAlgorithm {
     private static final Logger logger = LogManager.getLogger(DLSWCC.class);
 
+    // degrees are scaled by a random factor between 1 and 1 + INITIAL_PERTURBATION for the initial greedy cover
+    private static final double INITIAL_PERTURBATION = 0.25;
+
     private final int maxIterations;    //maximum amount of iterations
-    private BasicGraph graph;           //BasicGraph representation of current graph file
+    private final SplittableRandom random;          //perturbs the initial cover, null for the plain degree order
+    private final AtomicInteger sharedUpperBound;   //best weight of all walkers of a portfolio, null if alone
+    private Graph graph;                //current graph, only used for vertex weights
+    private EdgeIndex edgeIndex;        //edge ids and neighbour rows of the current graph
     private int numVertices;            //number of vertices in current graph
     private BitSet wConfig;             //has vertexScores[i] been changed since vertex i was last removed
-    private int[][] edgeWeights;        //higher weight means the edge is more often uncovered by currentCover
+    private int[] edgeWeights;          //per edge id, higher weight means the edge is more often uncovered by currentCover
     private double[] vertexScores;      //higher score means vertex is more likely to be added/removed
     private int[] vertexAges;           //last iteration where vertex was added/removed
     private BitSet tabuList;            //vertices that were added in the last iteration
+    private boolean useHeaps;           //select vertices from heaps, or by scanning bitsets on dense graphs
+    private VertexHeap coverHeap;       //vertices in currentCover, by score and age
+    private VertexHeap candidateHeap;   //vertices outside currentCover with wConfig set, by score and age
     private BitSet minimumVertexCover;  //current best found solution
     private BitSet currentCover;        //current working solution
+    private int currentWeight;          //total weight of currentCover
+    private int[] uncoveredEdges;       //edges without an endpoint in currentCover, the first uncoveredSize entries
+    private int[] uncoveredPosition;    //index of every edge in uncoveredEdges, -1 if currentCover covers it
+    private int uncoveredSize;          //number of edges without an endpoint in currentCover
     private int upperBound;             //total weight of current best solution
     private int iteration;              //current iteration
     private int lastImprovement;        //iteration at which the last improvement to the best solution was made
@@ -29,79 +47,123 @@ public class DLSWCC implements WeightedVertexCoverAlgorithm {
         Initialize DLSWCC with given number of maxIterations
      */
     public DLSWCC(int maxIterations) {
-        this.maxIterations = maxIterations;
+        this(maxIterations, null, null);
     }
 
     /*
         Initialize DLSWCC with default number of maxIterations
     */
     public DLSWCC() {
-        this.maxIterations = 10000000;
+        this(10000000);
+    }
+
+    /*
+        Initialize DLSWCC as one walker of a portfolio: the random generator perturbs its initial cover, and vertices
+        are only added while the cover stays lighter than the best cover of all walkers, which it updates in turn
+     */
+    public DLSWCC(int maxIterations, SplittableRandom random, AtomicInteger sharedUpperBound) {
+        this.maxIterations = maxIterations;
+        this.random = random;
+        this.sharedUpperBound = sharedUpperBound;
     }
 
     /*
         Calculate the minimum weighted vertex cover for the given graph
      */
     @Override
-    public BitSet calculateMinVertexCover(BasicGraph graph, IntermediateSolutionReporter intermediateSolutionReporter) {
+    public BitSet calculateMinVertexCover(BasicGraph graph, IntermediateSolutionReporter intermediateSolutionReporter,
+                                          CancellationToken cancellationToken) {
+        return calculateMinVertexCover((Graph) graph, intermediateSolutionReporter, cancellationToken);
+    }
+
+    /*
+        Calculate the minimum weighted vertex cover for a graph in any representation, the search only needs the
+        edge index, so sparse graphs are not converted to BitSet rows
+     */
+    @Override
+    public BitSet calculateMinVertexCover(Graph graph, IntermediateSolutionReporter intermediateSolutionReporter,
+                                          CancellationToken cancellationToken) {
+        long startTime = System.nanoTime();
         initialize(graph);
-        while (iteration < maxIterations && iteration - lastImprovement < maxIterations / 10) {
-            while (graph.isVertexCover(currentCover)) {
-                upperBound = graph.getWeight(currentCover);
+        // cancelling stops the search early, with the best cover found so far, the first iteration records the
+        // initial cover so there always is one
+        while (iteration < maxIterations && iteration - lastImprovement < maxIterations / 10
+                && (iteration == 0 || !cancellationToken.isCancelled())) {
+            while (uncoveredSize == 0) {
+                upperBound = currentWeight;
+                if (sharedUpperBound != null) {
+                    sharedUpperBound.accumulateAndGet(currentWeight, Math::min);
+                }
                 minimumVertexCover = (BitSet) currentCover.clone();
                 lastImprovement = iteration;
-                //intermediateSolutionReporter.solutionCallback(minimumVertexCover);
-                int id = nextVertex(currentCover);
-                currentCover.clear(id);
-                wConfig.clear(id);
+                if (intermediateSolutionReporter != null) {
+                    intermediateSolutionReporter.solutionCallback(minimumVertexCover);
+                }
+                int id = useHeaps ? coverHeap.peek() : nextVertex(currentCover);
+                removeFromCover(id);
+                clearConfig(id);
                 updateVertices(id);
             }
-            BitSet vertices = (BitSet) currentCover.clone();
-            vertices.andNot(tabuList);
-            int id = nextVertex(vertices);
+            int id = nextNonTabuVertex();
             if (id != -1) {
-                currentCover.clear(id);
-                wConfig.clear(id);
+                removeFromCover(id);
+                clearConfig(id);
                 updateVertices(id);
             }
             tabuList.clear();
-            while (!graph.isVertexCover(currentCover)) {
-                vertices = (BitSet) wConfig.clone();
-                vertices.andNot(currentCover);
-                id = nextVertex(vertices);
-                if (graph.getWeight(currentCover) + graph.getWeight(id) >= upperBound) {
+            int bound = sharedUpperBound == null ? upperBound : Math.min(upperBound, sharedUpperBound.get());
+            while (uncoveredSize > 0) {
+                id = nextCandidate();
+                if (id == -1 || currentWeight + graph.getWeight(id) >= bound) {
                     break;
                 }
-                currentCover.set(id);
+                addToCover(id);
                 updateVertices(id);
                 updateEdgeWeights();
                 tabuList.set(id);
             }
             iteration++;
         }
+        long millis = Math.max(1, (System.nanoTime() - startTime) / 1000000);
+        logger.info("{} iterations in {} ms, {} iterations per second", iteration, millis, iteration * 1000L / millis);
         return minimumVertexCover;
     }
 
     /*
         Initialize all helper values, arrays and bitsets, and calculate an initial solution
      */
-    private void initialize(BasicGraph graph) {
+    private void initialize(Graph graph) {
         this.graph = graph;
+        edgeIndex = new EdgeIndex(graph);
         numVertices = graph.getNumVertices();
         wConfig = new BitSet(numVertices);
         wConfig.set(0, numVertices);
-        edgeWeights = new int[numVertices][numVertices];
+        edgeWeights = new int[edgeIndex.getNumEdges()];
+        Arrays.fill(edgeWeights, 1);
         vertexScores = new double[numVertices];
         vertexAges = new int[numVertices];
-        tabuList = new BitSet(graph.getNumVertices());
+        tabuList = new BitSet(numVertices);
+        // every step changes the scores of the neighbours of a few vertices, keeping them ordered only pays off
+        // when that is less work than scanning all vertices, so when the average degree is below log(n)
+        useHeaps = 2L * edgeIndex.getNumEdges() < (long) numVertices * (32 - Integer.numberOfLeadingZeros(numVertices));
+        if (useHeaps) {
+            coverHeap = new VertexHeap(numVertices, vertexScores, vertexAges);
+            candidateHeap = new VertexHeap(numVertices, vertexScores, vertexAges);
+        }
         iteration = 0;
+        // the cover starts empty, so every edge is uncovered
+        uncoveredSize = edgeIndex.getNumEdges();
+        uncoveredEdges = new int[uncoveredSize];
+        uncoveredPosition = new int[uncoveredSize];
+        for (int edge = 0; edge < uncoveredSize; edge++) {
+            uncoveredEdges[edge] = edge;
+            uncoveredPosition[edge] = edge;
+        }
         for (int i = 0; i < numVertices; i++) {
-            vertexScores[i] = (double) graph.degree(i) / graph.getWeight(i);
-            for (int j = i + 1; j < numVertices; j++) {
-                if (graph.hasEdge(i, j)) {
-                    edgeWeights[i][j] = 1;
-                    edgeWeights[j][i] = 1;
-                }
+            vertexScores[i] = (double) edgeIndex.degree(i) / graph.getWeight(i);
+            if (useHeaps) {
+                // the cover is empty and every wConfig bit is set
+                candidateHeap.add(i);
             }
         }
         initialMinimumVertexCover();
@@ -112,18 +174,116 @@ public class DLSWCC implements WeightedVertexCoverAlgorithm {
      */
     private void initialMinimumVertexCover() {
         currentCover = new BitSet(numVertices);
-        List<Integer> vertices = graph.orderByDegree();
+        currentWeight = 0;
+        Integer[] vertices = new Integer[numVertices];
+        for (int i = 0; i < numVertices; i++) {
+            vertices[i] = i;
+        }
+        if (random == null) {
+            // highest degree first, the sort is stable so ties stay in increasing order
+            Arrays.sort(vertices, Comparator.comparingInt((Integer id) -> edgeIndex.degree(id)).reversed());
+        } else {
+            double[] keys = new double[numVertices];
+            for (int id = 0; id < numVertices; id++) {
+                keys[id] = edgeIndex.degree(id) * (1 + INITIAL_PERTURBATION * random.nextDouble());
+            }
+            Arrays.sort(vertices, Comparator.comparingDouble((Integer id) -> keys[id]).reversed());
+        }
         int i = 0;
-        while (!graph.isVertexCover(currentCover)) {
-            int id = vertices.get(i);
-            currentCover.set(id);
+        while (uncoveredSize > 0) {
+            int id = vertices[i];
+            addToCover(id);
             vertexScores[id] = -vertexScores[id];
+            scoreChanged(id);
             i++;
         }
     }
 
     /*
-        Select the vertex with the highest score in the given BitSet, breaking ties in favor of the oldest one
+        Add a vertex to currentCover, its edges to vertices outside the cover are covered now
+     */
+    private void addToCover(int id) {
+        currentCover.set(id);
+        if (useHeaps) {
+            candidateHeap.remove(id);
+            coverHeap.add(id);
+        }
+        currentWeight += graph.getWeight(id);
+        int[] neighbours = edgeIndex.getNeighbourArray();
+        int[] edges = edgeIndex.getEdgeArray();
+        for (int slot = edgeIndex.getOffsets()[id]; slot < edgeIndex.getOffsets()[id + 1]; slot++) {
+            if (!currentCover.get(neighbours[slot])) {
+                // swap the last uncovered edge into its place
+                int edge = edges[slot];
+                int last = uncoveredEdges[--uncoveredSize];
+                uncoveredEdges[uncoveredPosition[edge]] = last;
+                uncoveredPosition[last] = uncoveredPosition[edge];
+                uncoveredPosition[edge] = -1;
+            }
+        }
+    }
+
+    /*
+        Remove a vertex from currentCover, its edges to vertices outside the cover are uncovered now
+     */
+    private void removeFromCover(int id) {
+        currentCover.clear(id);
+        if (useHeaps) {
+            coverHeap.remove(id);
+            if (wConfig.get(id)) {
+                candidateHeap.add(id);
+            }
+        }
+        currentWeight -= graph.getWeight(id);
+        int[] neighbours = edgeIndex.getNeighbourArray();
+        int[] edges = edgeIndex.getEdgeArray();
+        for (int slot = edgeIndex.getOffsets()[id]; slot < edgeIndex.getOffsets()[id + 1]; slot++) {
+            if (!currentCover.get(neighbours[slot])) {
+                int edge = edges[slot];
+                uncoveredPosition[edge] = uncoveredSize;
+                uncoveredEdges[uncoveredSize++] = edge;
+            }
+        }
+    }
+
+    /*
+        Select the vertex in the cover with the highest score that was not added in the last iteration, breaking ties
+        in favor of the oldest one. The few tabu vertices leave the heap for a moment.
+     */
+    private int nextNonTabuVertex() {
+        if (!useHeaps) {
+            BitSet vertices = (BitSet) currentCover.clone();
+            vertices.andNot(tabuList);
+            return nextVertex(vertices);
+        }
+        for (int i = tabuList.nextSetBit(0); i >= 0; i = tabuList.nextSetBit(i + 1)) {
+            coverHeap.remove(i);
+        }
+        int id = coverHeap.peek();
+        for (int i = tabuList.nextSetBit(0); i >= 0; i = tabuList.nextSetBit(i + 1)) {
+            if (currentCover.get(i)) {
+                coverHeap.add(i);
+            }
+        }
+        return id;
+    }
+
+    /*
+        Select the vertex outside the cover with wConfig set with the highest score, breaking ties in favor of the
+        oldest one, -1 if there is none
+     */
+    private int nextCandidate() {
+        if (useHeaps) {
+            return candidateHeap.peek();
+        }
+        BitSet vertices = (BitSet) wConfig.clone();
+        vertices.andNot(currentCover);
+        return nextVertex(vertices);
+    }
+
+    /*
+        Select the vertex with the highest score in the given BitSet, breaking ties in favor of the oldest one, -1 if
+        it is empty. Used on dense graphs, where scanning is cheaper than keeping heaps ordered.
      */
     private int nextVertex(BitSet vertices) {
         int id = vertices.nextSetBit(0);
@@ -139,17 +299,15 @@ public class DLSWCC implements WeightedVertexCoverAlgorithm {
         Increase edge weights of all edges not covered by currentCover
      */
     private void updateEdgeWeights() {
-        for (int i = currentCover.nextClearBit(0); i < numVertices; i = currentCover.nextClearBit(i + 1)) {
-            for (int j = currentCover.nextClearBit(i + 1); j < numVertices; j = currentCover.nextClearBit(j + 1)) {
-                if (graph.hasEdge(i, j)) {
-                    edgeWeights[i][j]++;
-                    edgeWeights[j][i]++;
-                    vertexScores[i] += 1.0d / graph.getWeight(i);
-                    vertexScores[j] += 1.0d / graph.getWeight(j);
-                    wConfig.set(i);
-                    wConfig.set(j);
-                }
-            }
+        for (int k = 0; k < uncoveredSize; k++) {
+            int edge = uncoveredEdges[k];
+            int i = edgeIndex.getFrom(edge);
+            int j = edgeIndex.getTo(edge);
+            edgeWeights[edge]++;
+            vertexScores[i] += 1.0d / graph.getWeight(i);
+            vertexScores[j] += 1.0d / graph.getWeight(j);
+            setConfig(i);
+            setConfig(j);
         }
     }
 
@@ -159,14 +317,50 @@ public class DLSWCC implements WeightedVertexCoverAlgorithm {
     private void updateVertices(int id) {
         vertexScores[id] = -vertexScores[id];
         vertexAges[id] = iteration;
-        BitSet adjacentVertices = graph.getAdjacencyBitSet(id);
-        for (int i = adjacentVertices.nextSetBit(0); i != -1; i = adjacentVertices.nextSetBit(i + 1)) {
-            wConfig.set(i);
-            double add = (double) edgeWeights[i][id] / graph.getWeight(i);
+        scoreChanged(id);
+        int[] neighbours = edgeIndex.getNeighbourArray();
+        int[] edges = edgeIndex.getEdgeArray();
+        for (int slot = edgeIndex.getOffsets()[id]; slot < edgeIndex.getOffsets()[id + 1]; slot++) {
+            int i = neighbours[slot];
+            double add = (double) edgeWeights[edges[slot]] / graph.getWeight(i);
             if (currentCover.get(i) != currentCover.get(id)) {
                 add = -add;
             }
             vertexScores[i] += add;
+            setConfig(i);
+        }
+    }
+
+    /*
+        Restore the order of the heap that holds the vertex, after its score or age changed
+     */
+    private void scoreChanged(int id) {
+        if (useHeaps) {
+            coverHeap.update(id);
+            candidateHeap.update(id);
+        }
+    }
+
+    /*
+        Set wConfig for a vertex whose score changed, outside the cover that makes it a candidate to be added
+     */
+    private void setConfig(int id) {
+        wConfig.set(id);
+        if (!useHeaps) {
+            return;
+        }
+        if (currentCover.get(id)) {
+            coverHeap.update(id);
+        } else {
+            candidateHeap.add(id);
+            candidateHeap.update(id);
+        }
+    }
+
+    private void clearConfig(int id) {
+        wConfig.clear(id);
+        if (useHeaps) {
+            candidateHeap.remove(id);
         }
     }
 
@@ -0,0 +1,129 @@
+package be.ugent.algorithms;
+
+import be.ugent.benchmark.IntermediateSolutionReporter;
+import be.ugent.graphs.BasicGraph;
+import be.ugent.graphs.Graph;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.BitSet;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs several independent {@link DLSWCC} walkers on the same graph at the same time, one per thread. Every walker
+ * starts from its own randomly perturbed greedy cover, so they follow different trajectories, and they share the
+ * weight of the best cover found by any of them: a walker only adds vertices while its cover stays lighter than that.
+ * The best cover of all walkers is returned, cancelling or interrupting stops all of them with the best cover found so
+ * far.
+ */
+public class DLSWCCPortfolio implements WeightedVertexCoverAlgorithm {
+    private static final Logger logger = LogManager.getLogger(DLSWCCPortfolio.class);
+
+    private final int walkers;          //number of walkers, each on its own thread
+    private final int maxIterations;    //maximum amount of iterations of every walker
+    private final long seed;            //seed of the random generators of the walkers
+
+    /*
+        Initialize a portfolio with one walker per available processor
+     */
+    public DLSWCCPortfolio(int maxIterations, long seed) {
+        this(Runtime.getRuntime().availableProcessors(), maxIterations, seed);
+    }
+
+    public DLSWCCPortfolio(int walkers, int maxIterations, long seed) {
+        if (walkers < 1) {
+            throw new IllegalArgumentException("A portfolio needs at least one walker");
+        }
+        this.walkers = walkers;
+        this.maxIterations = maxIterations;
+        this.seed = seed;
+    }
+
+    @Override
+    public BitSet calculateMinVertexCover(BasicGraph graph, IntermediateSolutionReporter intermediateSolutionReporter,
+                                          CancellationToken cancellationToken) {
+        return calculateMinVertexCover((Graph) graph, intermediateSolutionReporter, cancellationToken);
+    }
+
+    /*
+        The walkers only read the graph, so they all share it, and they all check the token
+     */
+    @Override
+    public BitSet calculateMinVertexCover(Graph graph, IntermediateSolutionReporter intermediateSolutionReporter,
+                                          CancellationToken cancellationToken) {
+        AtomicInteger upperBound = new AtomicInteger(Integer.MAX_VALUE);
+        Incumbent incumbent = new Incumbent(graph, intermediateSolutionReporter);
+        SplittableRandom random = new SplittableRandom(seed);
+
+        Thread[] threads = new Thread[walkers];
+        for (int i = 0; i < walkers; i++) {
+            DLSWCC walker = new DLSWCC(maxIterations, random.split(), upperBound);
+            threads[i] = new Thread(() -> incumbent.offer(walker.calculateMinVertexCover(graph, incumbent::offer,
+                    cancellationToken)));
+            threads[i].setDaemon(true);
+            threads[i].start();
+        }
+        try {
+            for (Thread thread : threads) {
+                thread.join();
+            }
+        } catch (InterruptedException e) {
+            // stop the walkers as well and wait for their last covers, the caller gets the best one
+            for (Thread thread : threads) {
+                thread.interrupt();
+            }
+            for (Thread thread : threads) {
+                joinUninterruptibly(thread);
+            }
+            Thread.currentThread().interrupt();
+        }
+        logger.info("{} walkers found a cover with weight {}", walkers, upperBound.get());
+        return incumbent.get();
+    }
+
+    // Walkers stop within one iteration once the token is cancelled
+    private static void joinUninterruptibly(Thread thread) {
+        while (true) {
+            try {
+                thread.join();
+                return;
+            } catch (InterruptedException e) {
+                // keep waiting, the interrupt is restored by the caller
+            }
+        }
+    }
+
+    // Best cover reported by any of the walkers
+    private static class Incumbent {
+
+        private final Graph graph;
+        private final IntermediateSolutionReporter reporter;
+        private BitSet best;
+        private int bestWeight = Integer.MAX_VALUE;
+
+        Incumbent(Graph graph, IntermediateSolutionReporter reporter) {
+            this.graph = graph;
+            this.reporter = reporter;
+        }
+
+        // The walkers keep changing their own covers, so a lighter cover is copied
+        synchronized void offer(BitSet cover) {
+            if (cover == null) {
+                return;
+            }
+            int weight = graph.getWeight(cover);
+            if (weight < bestWeight) {
+                best = (BitSet) cover.clone();
+                bestWeight = weight;
+                if (reporter != null) {
+                    reporter.solutionCallback(best);
+                }
+            }
+        }
+
+        synchronized BitSet get() {
+            return best;
+        }
+    }
+}
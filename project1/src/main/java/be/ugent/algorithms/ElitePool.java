@@ -0,0 +1,135 @@
+package be.ugent.algorithms;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.TreeSet;
+
+/**
+ * The lightest distinct vertex covers found so far by {@link FixedSetSearch}, at most a fixed number of them. A cover
+ * that is already in the pool is ignored, and once the pool is full a new cover replaces the heaviest one if it is
+ * lighter. Between covers of the same weight the oldest one stays.
+ * <p>
+ * The number of covers of the pool that contain every vertex is kept up to date as covers enter and leave it, so the
+ * most frequent vertices are known without counting the bits of all covers again. Adding a cover takes O(log capacity)
+ * plus O(n / 64) for its hash and O(|cover|) for the counts.
+ * <p>
+ * The covers are kept as given, so they must not be changed after they are added.
+ */
+public class ElitePool {
+
+    private final int capacity;
+
+    // covers by weight, then by the order they were added in
+    private final TreeSet<Entry> byWeight = new TreeSet<>(
+            Comparator.comparingInt((Entry entry) -> entry.weight).thenComparingLong(entry -> entry.serial));
+    private final Map<BitSet, Entry> byCover = new HashMap<>();
+    // the same covers in no particular order, to pick a random one in O(1)
+    private final List<Entry> entries = new ArrayList<>();
+    private long nextSerial;
+
+    // number of covers of the pool that contain every vertex
+    private final int[] occurrences;
+
+    /**
+     * @param capacity    Maximum number of covers in the pool
+     * @param numVertices Number of vertices of the graph of the covers
+     */
+    public ElitePool(int capacity, int numVertices) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("An elite pool needs room for at least one cover");
+        }
+        this.capacity = capacity;
+        this.occurrences = new int[numVertices];
+    }
+
+    /**
+     * @return Whether the cover is in the pool now, false if it was already in it or is too heavy for a full pool
+     */
+    public boolean add(BitSet cover, int weight) {
+        if (byCover.containsKey(cover)) {
+            return false;
+        }
+        if (entries.size() == capacity) {
+            Entry heaviest = byWeight.last();
+            if (weight >= heaviest.weight) {
+                return false;
+            }
+            remove(heaviest);
+        }
+        Entry entry = new Entry(cover, weight, nextSerial++, entries.size());
+        byWeight.add(entry);
+        byCover.put(cover, entry);
+        entries.add(entry);
+        for (int vertex = cover.nextSetBit(0); vertex >= 0; vertex = cover.nextSetBit(vertex + 1)) {
+            occurrences[vertex]++;
+        }
+        return true;
+    }
+
+    private void remove(Entry entry) {
+        byWeight.remove(entry);
+        byCover.remove(entry.cover);
+        // move the last entry into its place
+        Entry last = entries.remove(entries.size() - 1);
+        if (last != entry) {
+            last.index = entry.index;
+            entries.set(last.index, last);
+        }
+        for (int vertex = entry.cover.nextSetBit(0); vertex >= 0; vertex = entry.cover.nextSetBit(vertex + 1)) {
+            occurrences[vertex]--;
+        }
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * @return The lightest cover of the pool, the oldest one if there are several, or null if it is empty
+     */
+    public BitSet getBest() {
+        return byWeight.isEmpty() ? null : byWeight.first().cover;
+    }
+
+    /**
+     * @return The weight of {@link #getBest()}, or Integer.MAX_VALUE if the pool is empty
+     */
+    public int getBestWeight() {
+        return byWeight.isEmpty() ? Integer.MAX_VALUE : byWeight.first().weight;
+    }
+
+    /**
+     * @return A cover of the pool chosen uniformly at random, the pool must not be empty
+     */
+    public BitSet getRandom(SplittableRandom random) {
+        return entries.get(random.nextInt(entries.size())).cover;
+    }
+
+    /**
+     * @return The number of covers of the pool that contain the vertex
+     */
+    public int getOccurrences(int vertex) {
+        return occurrences[vertex];
+    }
+
+    private static class Entry {
+
+        private final BitSet cover;
+        private final int weight;
+        private final long serial;
+        // position in entries
+        private int index;
+
+        Entry(BitSet cover, int weight, long serial, int index) {
+            this.cover = cover;
+            this.weight = weight;
+            this.serial = serial;
+            this.index = index;
+        }
+    }
+}
@@ -2,181 +2,140 @@ package be.ugent.algorithms;
 
 import be.ugent.benchmark.IntermediateSolutionReporter;
 import be.ugent.graphs.BasicGraph;
+import be.ugent.graphs.EdgeIndex;
 
 import java.util.*;
-import java.util.stream.Collectors;
-import java.util.stream.IntStream;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
 
 public class FixedSetSearch implements WeightedVertexCoverAlgorithm {
 
     private final int candidateListSize = 5;
     private final int initialSolutionsCount = 100;
     private final int maxSolutionsCount = 5000;
+    private final int eliteSolutionsCount = 100;
     private final int stagnationLimit = 100;
 
-    private List<Integer> restrictedCandidateList(BasicGraph graph, BitSet solution) {
-        int score;
-        BitSet edges;
-        Map<Integer, Integer> vertexAndScore = new HashMap<>();
-        for (int i = 0; i < graph.getNumVertices(); i++) {
-            if (!solution.get(i)) {
-                edges = (BitSet) graph.getAdjacencyBitSet(i).clone();
-                edges.andNot(solution);
-                score = edges.cardinality() / graph.weight(i);
-                vertexAndScore.put(i, score);
-            }
-        }
-        List<Integer> vertices = new ArrayList<>(vertexAndScore.keySet());
-
-        // sort vertices based on their score
-        vertices.sort(Comparator.comparingInt(vertexAndScore::get));
-
-        return vertices.subList(0, Math.min(this.candidateListSize, vertices.size()));
-    }
+    // Number of worker threads, 1 constructs all solutions on the calling thread
+    private final int parallelism;
+    // Seed of the random generators, every construction gets its own generator split off from it
+    private final long seed;
 
-    private BitSet randomizedGreedySolution(BasicGraph graph, BitSet fixedSet) {
-        BitSet solution;
-        solution = fixedSet == null ? new BitSet(graph.getNumVertices()) : (BitSet) fixedSet.clone();
-
-        Random random = new Random();
-        while (!graph.isVertexCover(solution)) {
-            List<Integer> candidates = restrictedCandidateList(graph, solution);
-            solution.set(candidates.get(random.nextInt(candidates.size())));
-        }
-        return solution;
+    public FixedSetSearch() {
+        this(1);
     }
 
-    private BitSet randomizedGreedySolution(BasicGraph graph) {
-        return randomizedGreedySolution(graph, null);
+    /**
+     * @param parallelism Number of solutions that are constructed and improved at the same time
+     */
+    public FixedSetSearch(int parallelism) {
+        this(parallelism, new SplittableRandom().nextLong());
     }
 
-    private List<Integer> getElementSwapImprovements(BasicGraph graph, BitSet solution) {
-        BitSet uniqueCover;
-        int improvement;
-        List<Integer> improvements = new ArrayList<>();
-        for (int vertex = 0; vertex < graph.getNumVertices(); vertex++) {
-            if (solution.get(vertex)) { // can only swap out vertices that are in the current solution
-                uniqueCover = (BitSet) graph.getAdjacencyBitSet(vertex).clone();
-                uniqueCover.andNot(solution);
-
-                improvement = graph.weight(vertex) - graph.getWeight(uniqueCover);
-                if (improvement > 0) {
-                    improvements.add(vertex);
-                }
-            }
+    public FixedSetSearch(int parallelism, long seed) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Parallelism must be at least 1");
         }
-        return improvements;
+        this.parallelism = parallelism;
+        this.seed = seed;
     }
 
-    private List<int[]> getPairSwapImprovements(BasicGraph graph, BitSet solution) {
-        BitSet uniqueCover;
-        int improvement;
-        List<int[]> improvements = new ArrayList<>();
-        for (int vertex1 = 0; vertex1 < graph.getNumVertices(); vertex1++) {
-            for (int vertex2 = vertex1 + 1; vertex2 < graph.getNumVertices(); vertex2++) {
-                if (solution.get(vertex1) && solution.get(vertex2) && !graph.getAdjacencyBitSet(vertex1).get(vertex2)) {
-                    uniqueCover = (BitSet) graph.getAdjacencyBitSet(vertex1).clone();
-                    uniqueCover.or(graph.getAdjacencyBitSet(vertex2));
-                    uniqueCover.andNot(solution);
-
-                    improvement = graph.weight(vertex1) + graph.weight(vertex2) - graph.getWeight(uniqueCover);
-                    if (improvement > 0) {
-                        int[] pair = new int[2];
-                        pair[0] = vertex1;
-                        pair[1] = vertex2;
-                        improvements.add(pair);
-                    }
-                }
-            }
+    /*
+        Build one solution for every fixed set (null for none): a greedy construction that contains it, improved by
+        local search. The constructions are independent, so with a pool they run at the same time. Each one gets its
+        own random generator, split off in order before any of them starts.
+     */
+    private List<BitSet> constructSolutions(RandomizedGreedyCover greedy, SwapLocalSearch localSearch,
+                                            List<BitSet> fixedSets, SplittableRandom random, ForkJoinPool pool,
+                                            CancellationToken cancellationToken) {
+        List<SplittableRandom> randoms = new ArrayList<>();
+        for (int i = 0; i < fixedSets.size(); i++) {
+            randoms.add(random.split());
         }
-        return improvements;
-    }
-
-    private BitSet swap(BasicGraph graph, int vertex, BitSet solution) {
-        BitSet newSolution = (BitSet) graph.getAdjacencyBitSet(vertex).clone();
-        newSolution.or(solution);
-        newSolution.flip(vertex);
-        return newSolution;
-    }
-
-    private BitSet swap(BasicGraph graph, int vertex1, int vertex2, BitSet solution) {
-        BitSet newSolution = (BitSet) graph.getAdjacencyBitSet(vertex1).clone();
-        newSolution.or(graph.getAdjacencyBitSet(vertex2));
-        newSolution.or(solution);
-        newSolution.flip(vertex1);
-        newSolution.flip(vertex2);
-        return newSolution;
-    }
-
-    private BitSet localSearch(BasicGraph graph, BitSet solution) {
-        List<Integer> elementSwapImprovements = getElementSwapImprovements(graph, solution);
-        List<int[]> pairSwapImprovements = new ArrayList<>();
-        Random random = new Random();
-        int vertex;
-        int[] pair;
-        while (elementSwapImprovements.size() + pairSwapImprovements.size() != 0) {
-            while (elementSwapImprovements.size() != 0) {
-                vertex = elementSwapImprovements.remove(random.nextInt(elementSwapImprovements.size()));
-                solution = swap(graph, vertex, solution);
+        List<BitSet> solutions = new ArrayList<>();
+        if (pool == null) {
+            for (int i = 0; i < fixedSets.size(); i++) {
+                solutions.add(constructSolution(greedy, localSearch, fixedSets.get(i), randoms.get(i),
+                        cancellationToken));
             }
-
-            pairSwapImprovements = getPairSwapImprovements(graph, solution);
-            if (pairSwapImprovements.size() != 0) {
-                pair = pairSwapImprovements.remove(random.nextInt(pairSwapImprovements.size()));
-                solution = swap(graph, pair[0], pair[1], solution);
+        } else {
+            List<ForkJoinTask<BitSet>> tasks = new ArrayList<>();
+            for (int i = 0; i < fixedSets.size(); i++) {
+                BitSet fixedSet = fixedSets.get(i);
+                SplittableRandom taskRandom = randoms.get(i);
+                tasks.add(pool.submit(() -> constructSolution(greedy, localSearch, fixedSet, taskRandom,
+                        cancellationToken)));
+            }
+            for (ForkJoinTask<BitSet> task : tasks) {
+                solutions.add(task.join());
             }
-            elementSwapImprovements = getElementSwapImprovements(graph, solution);
-        }
-        return solution;
-    }
-
-    private Map<BitSet, Integer> getInitialSolutions(BasicGraph graph) {
-        BitSet solution;
-        Map<BitSet, Integer> solutions = new HashMap<>();
-        for (int i = 0; i < this.initialSolutionsCount; i++) {
-            solution = randomizedGreedySolution(graph);
-            solution = localSearch(graph, solution);
-            solutions.put(solution, graph.getWeight(solution));
         }
         return solutions;
     }
 
-    private BitSet getFixedSet(BasicGraph graph, BitSet base, List<BitSet> solutions, int size) {
+    private BitSet constructSolution(RandomizedGreedyCover greedy, SwapLocalSearch localSearch, BitSet fixedSet,
+                                     SplittableRandom random, CancellationToken cancellationToken) {
+        BitSet solution = greedy.construct(fixedSet, random);
+        return localSearch.improve(solution, random, cancellationToken);
+    }
 
-        // Count the vertex occurrences over all solutions
-        int[] vertexCounts = new int[graph.getNumVertices()];
-        for (BitSet bitSet : solutions) {
-            int nextSetBit = bitSet.nextSetBit(0);
-            while (nextSetBit != -1) {
-                vertexCounts[nextSetBit]++;
-                nextSetBit = bitSet.nextSetBit(nextSetBit + 1);
+    private ElitePool getInitialSolutions(BasicGraph graph, RandomizedGreedyCover greedy,
+                                          SwapLocalSearch localSearch, SplittableRandom random, ForkJoinPool pool,
+                                          CancellationToken cancellationToken) {
+        ElitePool solutions = new ElitePool(this.eliteSolutionsCount, graph.getNumVertices());
+        // at least one batch, so there is a cover to return
+        for (int i = 0; i < this.initialSolutionsCount && (i == 0 || !cancellationToken.isCancelled()); i += parallelism) {
+            int batchSize = Math.min(parallelism, this.initialSolutionsCount - i);
+            List<BitSet> fixedSets = Collections.nCopies(batchSize, null);
+            for (BitSet solution : constructSolutions(greedy, localSearch, fixedSets, random, pool,
+                    cancellationToken)) {
+                solutions.add(solution, graph.getWeight(solution));
             }
         }
+        return solutions;
+    }
 
-        // sort vertices based on their occurrences
-        List<Integer> sortedVertices = IntStream.range(0, graph.getNumVertices())
-                .boxed().sorted(Comparator.comparingInt(i -> vertexCounts[i])).collect(Collectors.toList());
-
-        // make a fixed set of size with vertices that have the most occurrences and are
-        // present in base
-        int vertex;
-        int index = 0;
+    /*
+        The size vertices of base that occur in the most solutions of the pool, ties go to the lowest id
+     */
+    private BitSet getFixedSet(BasicGraph graph, BitSet base, ElitePool solutions, int size) {
         BitSet fixedSet = new BitSet(graph.getNumVertices());
-        while (fixedSet.cardinality() != size) {
-            vertex = sortedVertices.get(index);
-            if (base.get(vertex)) {
-                fixedSet.flip(vertex);
-            }
-            index++;
-        }
+        base.stream().boxed()
+                .sorted(Comparator.comparingInt((Integer vertex) -> solutions.getOccurrences(vertex)).reversed())
+                .limit(size)
+                .forEach(fixedSet::set);
         return fixedSet;
     }
 
     @Override
-    public BitSet calculateMinVertexCover(BasicGraph graph, IntermediateSolutionReporter intermediateSolutionReporter) {
+    public BitSet calculateMinVertexCover(BasicGraph graph, IntermediateSolutionReporter intermediateSolutionReporter,
+                                          CancellationToken cancellationToken) {
+        ForkJoinPool pool = parallelism > 1 ? new ForkJoinPool(parallelism) : null;
+        try {
+            return search(graph, new SplittableRandom(seed), pool, intermediateSolutionReporter, cancellationToken);
+        } finally {
+            if (pool != null) {
+                pool.shutdown();
+            }
+        }
+    }
+
+    /*
+        Every round constructs a batch of parallelism solutions at the same time, each one from a fixed set of its
+        own. The solutions are only added to the elite pool between batches, on this thread, so it needs no locking.
+     */
+    private BitSet search(BasicGraph graph, SplittableRandom random, ForkJoinPool pool,
+                          IntermediateSolutionReporter intermediateSolutionReporter,
+                          CancellationToken cancellationToken) {
+
+        // shared by all constructions, they only read the graph
+        EdgeIndex edgeIndex = new EdgeIndex(graph);
+        RandomizedGreedyCover greedy = new RandomizedGreedyCover(graph, edgeIndex, candidateListSize);
+        SwapLocalSearch localSearch = new SwapLocalSearch(graph, edgeIndex);
 
-        // initial solutions to construct fixed set with
-        Map<BitSet, Integer> solutions = getInitialSolutions(graph);
+        // the best solutions so far, the fixed sets are constructed from them
+        ElitePool solutions = getInitialSolutions(graph, greedy, localSearch, random, pool,
+                cancellationToken);
 
         // variables for the size of the fixed set
         int size;
@@ -184,61 +143,57 @@ public class FixedSetSearch implements WeightedVertexCoverAlgorithm {
         double sizeFactor = (1 - (1 / Math.pow(2, sizeIndex)));
 
         // used for generating the fixedSet
-        BitSet fixedSet;
         BitSet baseSolution;
-        List<BitSet> fixedSetSolutions;
 
         // current solution
         int weight;
-        BitSet solution;
 
-        // keep track of the best (minimal) solutions
-        int minWeight = 0;
-        BitSet minSolution = null;
+        // keep track of the best (minimal) solution, the pool never drops it
+        int minWeight = solutions.getBestWeight();
+        if (intermediateSolutionReporter != null) {
+            intermediateSolutionReporter.solutionCallback(solutions.getBest());
+        }
 
         // to check if we are stagnating
         int stagnationCounter = 0;
 
-        Random random = new Random();
-        for (int i = initialSolutionsCount; i < this.maxSolutionsCount; i++) {
-            // generate subset of all solutions to construct the fixed set with
-            fixedSetSolutions = new ArrayList<>(solutions.keySet());
-            fixedSetSolutions.sort(Comparator.comparingInt(solutions::get));
-            fixedSetSolutions = fixedSetSolutions.subList(0, Math.min(this.initialSolutionsCount, solutions.size()));
-            if (minSolution == null) {
-                minSolution = fixedSetSolutions.get(0);
+        int i = initialSolutionsCount;
+        while (i < this.maxSolutionsCount && !cancellationToken.isCancelled()) {
+            // get the fixed sets of the batch, each of the given size
+            List<BitSet> fixedSets = new ArrayList<>();
+            int batchSize = Math.min(parallelism, this.maxSolutionsCount - i);
+            for (int b = 0; b < batchSize; b++) {
+                // choose the base solution
+                baseSolution = solutions.getRandom(random);
+                size = (int) (baseSolution.cardinality() * sizeFactor);
+                fixedSets.add(getFixedSet(graph, baseSolution, solutions, size));
             }
-            Collections.shuffle(fixedSetSolutions);
-            // choose the base solution
-            baseSolution = fixedSetSolutions.get(random.nextInt(fixedSetSolutions.size()));
-
-            // get the fixed set of the given size
-            size = (int) (baseSolution.cardinality() * sizeFactor);
-            fixedSet = getFixedSet(graph, baseSolution, fixedSetSolutions, size);
-
-            // get a greedy construction containing the fixed set and do local search
-            solution = randomizedGreedySolution(graph, fixedSet);
-            solution = localSearch(graph, solution);
-
-            // add the solution
-            weight = graph.getWeight(solution);
-            solutions.put(solution, weight);
-
-            // check if it is the new best solution
-            if (weight < minWeight) {
-                minSolution = solution;
-                minWeight = weight;
-                stagnationCounter = 0;
-                // intermediateSolutionReporter.solutionCallback(minSolution);
-            } else if (stagnationCounter == this.stagnationLimit) {
-                // if sizeIndex became so small that sizeFactor was 1 last round, restart from 0
-                sizeIndex = sizeFactor == 1 ? 0 : sizeIndex + 1;
-                sizeFactor = (1 - (1 / Math.pow(2, sizeIndex)));
+
+            // get greedy constructions containing the fixed sets and do local search
+            for (BitSet solution : constructSolutions(greedy, localSearch, fixedSets, random, pool,
+                    cancellationToken)) {
+                // add the solution
+                weight = graph.getWeight(solution);
+                solutions.add(solution, weight);
+
+                // check if it is the new best solution
+                if (weight < minWeight) {
+                    minWeight = weight;
+                    stagnationCounter = 0;
+                    if (intermediateSolutionReporter != null) {
+                        intermediateSolutionReporter.solutionCallback(solutions.getBest());
+                    }
+                } else if (stagnationCounter == this.stagnationLimit) {
+                    // if sizeIndex became so small that sizeFactor was 1 last round, restart from 0
+                    sizeIndex = sizeFactor == 1 ? 0 : sizeIndex + 1;
+                    sizeFactor = (1 - (1 / Math.pow(2, sizeIndex)));
+                }
+                stagnationCounter++;
+                i++;
             }
-            stagnationCounter++;
         }
 
-        return minSolution;
+        return solutions.getBest();
     }
 
     public static void main(String[] args) {
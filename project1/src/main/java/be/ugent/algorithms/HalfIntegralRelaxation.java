@@ -0,0 +1,207 @@
+package be.ugent.algorithms;
+
+import be.ugent.graphs.BasicGraph;
+import be.ugent.graphs.Graph;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * Optimal solution of the LP relaxation of weighted vertex cover on the active vertices of a {@link BasicGraph}, or on
+ * all vertices of any other {@link Graph}.
+ * <p>
+ * The LP always has a half-integral optimum, which is read from a minimum cut of the bipartite double cover: every
+ * vertex v gets a left copy L_v, connected to the source with capacity w(v), and a right copy R_v, connected to the
+ * sink with capacity w(v), and every edge uv becomes the arcs L_u -> R_v and L_v -> R_u with infinite capacity. The
+ * maximum flow is computed with Dinic's algorithm on primitive arrays. By the Nemhauser-Trotter theorem, some optimal
+ * cover contains every vertex with x = 1 and none with x = 0.
+ */
+public class HalfIntegralRelaxation {
+
+    private static final long INFINITE = Long.MAX_VALUE / 4;
+
+    private final int numVertices;
+    // twice the LP value of every vertex of the graph: 0, 1 or 2, and 0 for removed vertices
+    private final int[] doubledValues;
+    // the maximum flow, which is twice the optimal LP objective
+    private final long maxFlow;
+
+    // flow network, arcs are stored in pairs so arc ^ 1 is the reverse arc
+    private int source;
+    private int sink;
+    private int[] head;
+    private int[] next;
+    private int[] to;
+    private long[] capacity;
+    private int arcCount;
+    private int[] level;
+    private int[] queue;
+
+    public HalfIntegralRelaxation(BasicGraph graph) {
+        this(graph, graph.getActiveVertices(), graph.getNumActiveEdges());
+    }
+
+    /**
+     * Only uses the neighbours of the vertices, so it also works for graphs that are too large for a BitSet per vertex.
+     * The network has 2n + 2 nodes and 2n + 2m arcs.
+     */
+    public HalfIntegralRelaxation(Graph graph) {
+        this(graph, all(graph.getNumVertices()), graph.getNumEdges());
+    }
+
+    private static BitSet all(int numVertices) {
+        BitSet vertices = new BitSet(numVertices);
+        vertices.set(0, numVertices);
+        return vertices;
+    }
+
+    /*
+        The neighbours of the given vertices must all be given vertices as well, as for the active vertices of a
+        BasicGraph
+     */
+    private HalfIntegralRelaxation(Graph graph, BitSet active, long numEdges) {
+        this.numVertices = graph.getNumVertices();
+        this.doubledValues = new int[numVertices];
+
+        int[] ids = new int[numVertices];
+        int size = 0;
+        for (int vertex = active.nextSetBit(0); vertex >= 0; vertex = active.nextSetBit(vertex + 1)) {
+            ids[vertex] = size++;
+        }
+
+        // node i is L_i, node size + i is R_i
+        int nodes = 2 * size + 2;
+        source = 2 * size;
+        sink = 2 * size + 1;
+        int arcs = Math.toIntExact(2 * (2 * size + 2 * numEdges));
+        head = new int[nodes];
+        Arrays.fill(head, -1);
+        next = new int[arcs];
+        to = new int[arcs];
+        capacity = new long[arcs];
+        level = new int[nodes];
+        queue = new int[nodes];
+
+        int right = size;
+        for (int vertex = active.nextSetBit(0); vertex >= 0; vertex = active.nextSetBit(vertex + 1)) {
+            int id = ids[vertex];
+            addArc(source, id, graph.getWeight(vertex));
+            addArc(right + id, sink, graph.getWeight(vertex));
+            graph.forEachNeighbour(vertex, node -> addArc(id, right + ids[node], INFINITE));
+        }
+
+        this.maxFlow = maxFlow();
+
+        // after the last breadth first search, level >= 0 marks the source side of a minimum cut
+        for (int vertex = active.nextSetBit(0); vertex >= 0; vertex = active.nextSetBit(vertex + 1)) {
+            int id = ids[vertex];
+            doubledValues[vertex] = (level[id] < 0 ? 1 : 0) + (level[size + id] >= 0 ? 1 : 0);
+        }
+
+        // the network is not needed anymore
+        head = next = to = level = queue = null;
+        capacity = null;
+    }
+
+    private void addArc(int from, int destination, long arcCapacity) {
+        to[arcCount] = destination;
+        capacity[arcCount] = arcCapacity;
+        next[arcCount] = head[from];
+        head[from] = arcCount++;
+        to[arcCount] = from;
+        capacity[arcCount] = 0;
+        next[arcCount] = head[destination];
+        head[destination] = arcCount++;
+    }
+
+    private long maxFlow() {
+        long flow = 0;
+        int[] current = new int[head.length];
+        int[] path = new int[head.length];
+        while (buildLevels()) {
+            System.arraycopy(head, 0, current, 0, head.length);
+            // iterative depth first search for blocking flow, path holds the arcs from the source to node
+            int depth = 0;
+            int node = source;
+            while (true) {
+                if (node == sink) {
+                    long bottleneck = INFINITE;
+                    for (int i = 0; i < depth; i++) {
+                        bottleneck = Math.min(bottleneck, capacity[path[i]]);
+                    }
+                    for (int i = 0; i < depth; i++) {
+                        capacity[path[i]] -= bottleneck;
+                        capacity[path[i] ^ 1] += bottleneck;
+                    }
+                    flow += bottleneck;
+                    // continue from the tail of the first saturated arc
+                    depth = 0;
+                    while (capacity[path[depth]] > 0) {
+                        depth++;
+                    }
+                    node = depth == 0 ? source : to[path[depth - 1]];
+                    continue;
+                }
+                int arc = current[node];
+                while (arc != -1 && (capacity[arc] == 0 || level[to[arc]] != level[node] + 1)) {
+                    arc = next[arc];
+                }
+                current[node] = arc;
+                if (arc != -1) {
+                    path[depth++] = arc;
+                    node = to[arc];
+                } else if (node == source) {
+                    break;
+                } else {
+                    // dead end, never visit this node again in this phase
+                    level[node] = -1;
+                    depth--;
+                    node = depth == 0 ? source : to[path[depth - 1]];
+                    current[node] = next[current[node]];
+                }
+            }
+        }
+        return flow;
+    }
+
+    // Breadth first search from the source in the residual network, returns whether the sink is reachable
+    private boolean buildLevels() {
+        Arrays.fill(level, -1);
+        level[source] = 0;
+        int front = 0;
+        int back = 0;
+        queue[back++] = source;
+        while (front < back) {
+            int node = queue[front++];
+            for (int arc = head[node]; arc != -1; arc = next[arc]) {
+                if (capacity[arc] > 0 && level[to[arc]] < 0) {
+                    level[to[arc]] = level[node] + 1;
+                    queue[back++] = to[arc];
+                }
+            }
+        }
+        return level[sink] >= 0;
+    }
+
+    /**
+     * @param vertex Index of the vertex
+     * @return Twice the LP value of the vertex, so 0, 1 or 2
+     */
+    public int doubledValue(int vertex) {
+        return doubledValues[vertex];
+    }
+
+    /**
+     * @return The optimal LP objective, a lower bound on the weight of every vertex cover of the active vertices
+     */
+    public double getObjective() {
+        return maxFlow / 2.0;
+    }
+
+    /**
+     * @return The optimal LP objective rounded up, which is still a lower bound since covers have integral weight
+     */
+    public long getLowerBound() {
+        return (maxFlow + 1) / 2;
+    }
+}
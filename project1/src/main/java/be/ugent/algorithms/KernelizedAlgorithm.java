@@ -0,0 +1,96 @@
+package be.ugent.algorithms;
+
+import be.ugent.benchmark.IntermediateSolutionReporter;
+import be.ugent.graphs.BasicGraph;
+import be.ugent.graphs.Graph;
+import be.ugent.graphs.SparseGraph;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.BitSet;
+
+/**
+ * Runs another algorithm on the kernel of the graph instead of on the graph itself, see {@link Kernelizer}.
+ * Covers of the kernel, including the intermediate ones, are lifted back to covers of the original graph.
+ * <p>
+ * A {@link SparseGraph} is too large for the rules of the kernelizer, which need a BitSet per vertex. It is only
+ * reduced with the LP relaxation: vertices with value 1 are taken, vertices with value 0 are dropped, and the algorithm
+ * runs on the sparse subgraph of the vertices with value 1/2.
+ */
+public class KernelizedAlgorithm implements WeightedVertexCoverAlgorithm {
+
+    private static final Logger logger = LogManager.getLogger(KernelizedAlgorithm.class);
+
+    private final WeightedVertexCoverAlgorithm algorithm;
+
+    public KernelizedAlgorithm(WeightedVertexCoverAlgorithm algorithm) {
+        this.algorithm = algorithm;
+    }
+
+    public WeightedVertexCoverAlgorithm getAlgorithm() {
+        return algorithm;
+    }
+
+    @Override
+    public BitSet calculateMinVertexCover(BasicGraph graph, IntermediateSolutionReporter intermediateSolutionReporter,
+                                          CancellationToken cancellationToken) {
+        Kernelizer kernelizer = new Kernelizer(graph);
+        BasicGraph kernel = kernelizer.kernelize();
+        logger.info("Kernel has {} vertices and {} edges", kernel.getNumVertices(), kernel.getNumEdges());
+
+        if (kernel.getNumVertices() == 0) {
+            return kernelizer.lift(new BitSet());
+        }
+        BitSet kernelCover = algorithm.calculateMinVertexCover(
+                kernel,
+                intermediateSolutionReporter == null ? null :
+                        solution -> intermediateSolutionReporter.solutionCallback(kernelizer.lift(solution)),
+                cancellationToken);
+        return kernelizer.lift(kernelCover);
+    }
+
+    @Override
+    public BitSet calculateMinVertexCover(Graph graph, IntermediateSolutionReporter intermediateSolutionReporter,
+                                          CancellationToken cancellationToken) {
+        if (!(graph instanceof SparseGraph sparseGraph)) {
+            return calculateMinVertexCover(BasicGraph.of(graph), intermediateSolutionReporter, cancellationToken);
+        }
+        HalfIntegralRelaxation relaxation = new HalfIntegralRelaxation(sparseGraph);
+        // by the Nemhauser-Trotter theorem some optimal cover takes all vertices with value 1 and no vertex with 0
+        BitSet taken = new BitSet(graph.getNumVertices());
+        BitSet kernelVertices = new BitSet(graph.getNumVertices());
+        for (int vertex = 0; vertex < graph.getNumVertices(); vertex++) {
+            if (relaxation.doubledValue(vertex) == 2) {
+                taken.set(vertex);
+            } else if (relaxation.doubledValue(vertex) == 1) {
+                kernelVertices.set(vertex);
+            }
+        }
+        SparseGraph kernel = sparseGraph.inducedSubgraph(kernelVertices);
+        logger.info("Kernel has {} vertices and {} edges, {} vertices taken, LP lower bound {}",
+                kernel.getNumVertices(), kernel.getNumEdges(), taken.cardinality(), relaxation.getLowerBound());
+
+        if (kernel.getNumVertices() == 0) {
+            return taken;
+        }
+        BitSet kernelCover = algorithm.calculateMinVertexCover(
+                kernel,
+                intermediateSolutionReporter == null ? null :
+                        solution -> intermediateSolutionReporter.solutionCallback(
+                                lift(solution, kernelVertices, taken)),
+                cancellationToken);
+        return lift(kernelCover, kernelVertices, taken);
+    }
+
+    // Vertex i of the kernel is the i-th set bit of kernelVertices
+    private static BitSet lift(BitSet kernelCover, BitSet kernelVertices, BitSet taken) {
+        BitSet cover = (BitSet) taken.clone();
+        int vertex = kernelVertices.nextSetBit(0);
+        for (int i = 0; vertex >= 0; i++, vertex = kernelVertices.nextSetBit(vertex + 1)) {
+            if (kernelCover.get(i)) {
+                cover.set(vertex);
+            }
+        }
+        return cover;
+    }
+}
@@ -0,0 +1,217 @@
+package be.ugent.algorithms;
+
+import be.ugent.graphs.BasicGraph;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Shrinks a weighted vertex cover instance to a kernel before a solver runs on it. Besides the BMWVC rules of the
+ * {@link ReductionEngine}, it applies
+ * <ul>
+ *     <li>domination: if N[u] is a subset of N[v] and w(v) &lt;= w(u), some optimal cover contains v</li>
+ *     <li>twins: non-adjacent u and v with N(u) = N(v) are either both in an optimal cover or both out of it, so v
+ *     is merged into u</li>
+ *     <li>weighted vertex folding: a degree 2 vertex v with non-adjacent neighbours a and b, where
+ *     max(w(a), w(b)) &lt;= w(v) &lt; w(a) + w(b), is folded together with a and b into one vertex of weight
+ *     w(a) + w(b) - w(v)</li>
+ *     <li>the Nemhauser-Trotter LP reduction: vertices with LP value 1 are taken, vertices with LP value 0 are
+ *     dropped, see {@link HalfIntegralRelaxation}</li>
+ * </ul>
+ * Twins and foldings change the graph, so they are recorded and undone in reverse order by {@link #lift(BitSet)}.
+ */
+public class Kernelizer {
+
+    private static final Logger logger = LogManager.getLogger(Kernelizer.class);
+
+    private static final int TWIN = 0;
+    private static final int FOLD = 1;
+
+    private final BasicGraph graph;
+    private final ReductionEngine engine;
+
+    // vertices that the rules forced into the cover, in the numbering of the original graph
+    private final BitSet cover;
+    // twin merges {TWIN, u, v} and foldings {FOLD, v, a, b}, in the order they were applied
+    private final List<int[]> liftSteps = new ArrayList<>();
+    // vertices of the original graph that make up the kernel, vertex i of the kernel is the i-th set bit
+    private BitSet kernelVertices;
+
+    /**
+     * @param graph Graph to kernelize, it is copied and not changed
+     */
+    public Kernelizer(BasicGraph graph) {
+        this.graph = graph.copy();
+        this.engine = new ReductionEngine(this.graph);
+        this.cover = new BitSet(graph.getNumVertices());
+    }
+
+    /**
+     * Apply all rules until none of them applies anymore
+     *
+     * @return The kernel, a new graph numbered 0 .. k - 1
+     */
+    public BasicGraph kernelize() {
+        boolean changed;
+        do {
+            engine.reduce(cover);
+            changed = applyDomination();
+            changed |= applyTwins();
+            changed |= applyFolding();
+            if (!changed) {
+                // the most expensive rule goes last, and only once the cheap ones are exhausted
+                changed = applyLinearProgramming();
+            }
+        } while (changed);
+
+        kernelVertices = (BitSet) graph.getActiveVertices().clone();
+        logger.debug("Kernel has {} of {} vertices, {} forced in the cover, {} twins and foldings",
+                kernelVertices.cardinality(), graph.getNumVertices(), cover.cardinality(), liftSteps.size());
+        return graph.inducedSubgraph(kernelVertices);
+    }
+
+    /**
+     * Map a cover of the kernel back to a cover of the original graph
+     *
+     * @param kernelCover Vertex cover of the graph returned by {@link #kernelize()}
+     * @return A vertex cover of the original graph, optimal if the kernel cover is optimal
+     */
+    public BitSet lift(BitSet kernelCover) {
+        BitSet result = (BitSet) cover.clone();
+        int id = 0;
+        for (int vertex = kernelVertices.nextSetBit(0); vertex >= 0; vertex = kernelVertices.nextSetBit(vertex + 1)) {
+            if (kernelCover.get(id)) {
+                result.set(vertex);
+            }
+            id++;
+        }
+        for (int i = liftSteps.size() - 1; i >= 0; i--) {
+            int[] step = liftSteps.get(i);
+            if (step[0] == TWIN) {
+                result.set(step[2], result.get(step[1]));
+            } else if (result.get(step[1])) {
+                // the folded vertex is in the cover, so both outer vertices are
+                result.clear(step[1]);
+                result.set(step[2]);
+                result.set(step[3]);
+            } else {
+                result.set(step[1]);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return The vertices forced into the cover so far, in the numbering of the original graph
+     */
+    public BitSet getForcedCover() {
+        return cover;
+    }
+
+    private void take(int vertex) {
+        cover.set(vertex);
+        graph.removeVertex(vertex);
+    }
+
+    private boolean applyDomination() {
+        boolean changed = false;
+        BitSet active = graph.getActiveVertices();
+        for (int v = active.nextSetBit(0); v >= 0; v = active.nextSetBit(v + 1)) {
+            BitSet adjacency = graph.getAdjacencyBitSet(v);
+            for (int u = adjacency.nextSetBit(0); u >= 0; u = adjacency.nextSetBit(u + 1)) {
+                if (graph.degree(u) <= graph.degree(v) && graph.getWeight(v) <= graph.getWeight(u)
+                        && isDominated(u, v)) {
+                    take(v);
+                    changed = true;
+                    break;
+                }
+            }
+        }
+        return changed;
+    }
+
+    // Whether N[u] is a subset of N[v], for adjacent u and v
+    private boolean isDominated(int u, int v) {
+        BitSet adjacencyU = graph.getAdjacencyBitSet(u);
+        BitSet adjacencyV = graph.getAdjacencyBitSet(v);
+        for (int node = adjacencyU.nextSetBit(0); node >= 0; node = adjacencyU.nextSetBit(node + 1)) {
+            if (node != v && !adjacencyV.get(node)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean applyTwins() {
+        boolean changed = false;
+        // keys are copies, since removing a twin changes the rows of its neighbours
+        Map<BitSet, Integer> neighbourhoods = new HashMap<>();
+        BitSet active = graph.getActiveVertices();
+        for (int v = active.nextSetBit(0); v >= 0; v = active.nextSetBit(v + 1)) {
+            BitSet adjacency = graph.getAdjacencyBitSet(v);
+            Integer twin = neighbourhoods.get(adjacency);
+            if (twin == null || !graph.isActive(twin)) {
+                neighbourhoods.put((BitSet) adjacency.clone(), v);
+            } else {
+                graph.setWeight(twin, graph.getWeight(twin) + graph.getWeight(v));
+                graph.removeVertex(v);
+                liftSteps.add(new int[]{TWIN, twin, v});
+                changed = true;
+            }
+        }
+        return changed;
+    }
+
+    private boolean applyFolding() {
+        boolean changed = false;
+        for (int v : graph.verticesWithDegree(2)) {
+            if (!graph.isActive(v) || graph.degree(v) != 2) {
+                continue;
+            }
+            BitSet adjacency = graph.getAdjacencyBitSet(v);
+            int a = adjacency.nextSetBit(0);
+            int b = adjacency.nextSetBit(a + 1);
+            int weight = graph.getWeight(v);
+            if (graph.hasEdge(a, b) || weight < Math.max(graph.getWeight(a), graph.getWeight(b))
+                    || weight >= graph.getWeight(a) + graph.getWeight(b)) {
+                continue;
+            }
+            BitSet neighbourhood = (BitSet) graph.getAdjacencyBitSet(a).clone();
+            neighbourhood.or(graph.getAdjacencyBitSet(b));
+            neighbourhood.clear(v);
+            graph.removeVertex(a);
+            graph.removeVertex(b);
+            graph.setWeight(v, graph.getWeight(a) + graph.getWeight(b) - weight);
+            for (int node = neighbourhood.nextSetBit(0); node >= 0; node = neighbourhood.nextSetBit(node + 1)) {
+                graph.addEdge(v, node);
+            }
+            liftSteps.add(new int[]{FOLD, v, a, b});
+            changed = true;
+        }
+        return changed;
+    }
+
+    private boolean applyLinearProgramming() {
+        if (graph.getNumActiveVertices() == 0) {
+            return false;
+        }
+        HalfIntegralRelaxation relaxation = new HalfIntegralRelaxation(graph);
+        boolean changed = false;
+        BitSet active = graph.getActiveVertices();
+        for (int v = active.nextSetBit(0); v >= 0; v = active.nextSetBit(v + 1)) {
+            if (relaxation.doubledValue(v) == 2) {
+                take(v);
+                changed = true;
+            } else if (relaxation.doubledValue(v) == 0) {
+                graph.removeVertex(v);
+                changed = true;
+            }
+        }
+        return changed;
+    }
+}
@@ -0,0 +1,17 @@
+package be.ugent.algorithms;
+
+import be.ugent.graphs.BasicGraph;
+
+/**
+ * Optimal objective of the LP relaxation, rounded up, see {@link HalfIntegralRelaxation}.
+ */
+public class LinearProgrammingBound implements LowerBound {
+
+    @Override
+    public int calculate(BasicGraph graph) {
+        if (graph.getNumActiveVertices() == 0) {
+            return 0;
+        }
+        return (int) new HalfIntegralRelaxation(graph).getLowerBound();
+    }
+}
@@ -0,0 +1,15 @@
+package be.ugent.algorithms;
+
+import be.ugent.graphs.BasicGraph;
+
+/**
+ * Lower bound on the weight of a minimum vertex cover, used by {@link BMWVC} to prune the branch and bound search.
+ */
+public interface LowerBound {
+
+    /**
+     * @param graph Graph of which only the active vertices are considered, it must be left unchanged
+     * @return A lower bound on the weight of every vertex cover of the active vertices of the graph
+     */
+    int calculate(BasicGraph graph);
+}
@@ -2,117 +2,262 @@ package be.ugent.algorithms;
 
 import be.ugent.benchmark.IntermediateSolutionReporter;
 import be.ugent.graphs.BasicGraph;
-import org.javatuples.Pair;
+import be.ugent.graphs.EdgeIndex;
+import be.ugent.graphs.Graph;
+import be.ugent.graphs.SparseGraph;
 
-import java.util.Arrays;
 import java.util.BitSet;
-import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 
+/**
+ * Pricing method (Bar-Yehuda and Even) for a 2-approximation of the minimum weight vertex cover. Every edge is visited
+ * once. An edge whose endpoints both still have weight left is priced at the smaller of the two. That price is paid by
+ * both endpoints, and the vertices that have paid their whole weight, the tight ones, form the cover.
+ * <p>
+ * Only the residual weight of every vertex is kept, so it takes O(n + m) time and O(n) memory besides the graph.
+ * <p>
+ * With more than one thread the edges are priced in synchronous rounds instead, as in Khuller, Vishkin and Young. In
+ * every round each vertex that is not tight offers its residual weight divided over its uncovered edges, every
+ * uncovered edge is priced at the smaller offer of its endpoints, and the vertices that have paid all but a fraction
+ * epsilon of their weight join the cover. All vertices of a round are handled in parallel, and it takes
+ * O(log n log(1 / epsilon)) rounds. The cover is then a 2 / (1 - epsilon) approximation.
+ * <p>
+ * In both modes the prices of the edges are a feasible dual solution, so their sum, {@link #getDualValue()}, is a lower
+ * bound on the weight of a minimum vertex cover, and the weight of the cover divided by it bounds the approximation
+ * ratio of the run.
+ */
 public class PricingMethod implements WeightedVertexCoverAlgorithm {
-    BitSet tightVertices;
-    int[] vertexPrices;
 
 
     private static final Logger logger = LogManager.getLogger(PricingMethod.class.getName());
 
+    private final int parallelism;  //number of worker threads, 1 prices every edge once on the calling thread
+    private final double epsilon;   //fraction of its weight a vertex may leave unpaid when it joins the cover in rounds
+    private double dualValue;       //sum of the edge prices of the last run
 
-    public boolean isTight(int vertex, int[][] edgePrices, BasicGraph graph) {
-        boolean isTight = this.tightVertices.get(vertex);
-        if (!isTight) {
-            int vertexPrice = this.getVertexPrice(vertex, edgePrices);
-            isTight = vertexPrice == graph.getWeight(vertex);
-            if (isTight) {
-                this.tightVertices.set(vertex);
-            }
-        }
-        return vertexPrices[vertex] == graph.getWeight(vertex);
+    public PricingMethod() {
+        this(1);
     }
 
-    private int getVertexPrice(int u, int[][] edgePrices) {
-        return vertexPrices[u];
+    /**
+     * @param parallelism Number of threads that price the edges, rounds are only used with more than one
+     */
+    public PricingMethod(int parallelism) {
+        this(parallelism, 0.01);
     }
 
-    private void setEdgePrice(int u, int v, int[][] edgePrices, int price) {
-        edgePrices[u][v] = price;
-        edgePrices[v][u] = price;
-        vertexPrices[u] = Arrays.stream(edgePrices[u]).sum(); // Update the sum of edge prices for u
-        vertexPrices[v] = Arrays.stream(edgePrices[v]).sum(); // Update the sum of edge prices for v
+    public PricingMethod(int parallelism, double epsilon) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Parallelism must be at least 1");
+        }
+        if (epsilon < 0 || epsilon >= 1) {
+            throw new IllegalArgumentException("Epsilon must be at least 0 and smaller than 1");
+        }
+        this.parallelism = parallelism;
+        this.epsilon = epsilon;
     }
 
+    /**
+     * @return The sum of the edge prices of the last run, a lower bound on the weight of a minimum vertex cover
+     */
+    public double getDualValue() {
+        return dualValue;
+    }
 
-    private Pair<Integer, Integer> getFirstNonTightVertexPair(int[][] edgePrices, BasicGraph graph) {
-        for (int i = 0; i < graph.getNumVertices(); i++) {
-            boolean iIsTight = this.isTight(i, edgePrices, graph);
-            if (!iIsTight) {
-                for (int j = i; j < graph.getNumVertices(); j++) {
-                    if (i != j) {
-                        boolean jIsTight = this.isTight(j, edgePrices, graph);
-                        if (!jIsTight) {
-                            if (graph.hasEdge(i, j)) {
-                                return Pair.with(i, j);
-                            }
-
-                        } else {
-                            this.tightVertices.set(j);
-                        }
-                    }
-                }
-            } else {
-                this.tightVertices.set(i);
+
+    @Override
+    public BitSet calculateMinVertexCover(BasicGraph graph, IntermediateSolutionReporter intermediateSolutionReporter,
+                                          CancellationToken cancellationToken) {
+        return calculateMinVertexCover((Graph) graph, intermediateSolutionReporter, cancellationToken);
+    }
+
+    @Override
+    public BitSet calculateMinVertexCover(Graph graph, IntermediateSolutionReporter intermediateSolutionReporter,
+                                          CancellationToken cancellationToken) {
+        BitSet vertexCover;
+        if (parallelism == 1) {
+            vertexCover = priceEdges(graph, cancellationToken);
+        } else {
+            ForkJoinPool pool = new ForkJoinPool(parallelism);
+            try {
+                vertexCover = priceInRounds(graph, pool, cancellationToken);
+            } finally {
+                pool.shutdown();
             }
         }
-        return null;
+        int weight = graph.getWeight(vertexCover);
+        logger.info("Cover with weight {} and dual value {}, at most {} times the minimum", weight, dualValue,
+                dualValue == 0 ? 1 : weight / dualValue);
+
+        if (intermediateSolutionReporter != null) {
+            intermediateSolutionReporter.solutionCallback(vertexCover);
+        }
+        return vertexCover;
     }
 
-    @Override
-    public BitSet calculateMinVertexCover(BasicGraph graph, IntermediateSolutionReporter intermediateSolutionReporter) {
+    private BitSet priceEdges(Graph graph, CancellationToken cancellationToken) {
         int numberOfVertices = graph.getNumVertices();
-        this.vertexPrices = new int[numberOfVertices];
-        this.tightVertices = new BitSet(numberOfVertices);
-        this.tightVertices.clear();
+        // weight of every vertex that is not paid by the prices of its edges yet, 0 for tight vertices
+        int[] residualWeight = new int[numberOfVertices];
+        for (int vertex = 0; vertex < numberOfVertices; vertex++) {
+            residualWeight[vertex] = graph.getWeight(vertex);
+        }
         BitSet vertexCover = new BitSet(numberOfVertices);
-        int[][] edgePrices = new int[numberOfVertices][numberOfVertices];
 
-        for (int i = 0; i < numberOfVertices; i++) {
-            edgePrices[i] = new int[numberOfVertices];
-            for (int j = 0; j < numberOfVertices; j++) {
-                edgePrices[i][j] = 0;
+        for (int u = 0; u < numberOfVertices; u++) {
+            if (cancellationToken.isCancelled()) {
+                dualValue = paidWeight(graph, residualWeight) / 2;
+                return completeCover(graph, vertexCover);
+            }
+            // once u is tight, all of its edges are covered
+            if (residualWeight[u] == 0) {
+                continue;
             }
+            int source = u;
+            graph.forEachNeighbour(u, v -> {
+                // the edge to a lower neighbour was priced when that neighbour was visited
+                if (v < source || residualWeight[source] == 0 || residualWeight[v] == 0) {
+                    return;
+                }
+                int price = Math.min(residualWeight[source], residualWeight[v]);
+                residualWeight[source] -= price;
+                residualWeight[v] -= price;
+                // at least one of them is tight now, both are when their residual weights were equal
+                if (residualWeight[source] == 0) {
+                    vertexCover.set(source);
+                }
+                if (residualWeight[v] == 0) {
+                    vertexCover.set(v);
+                }
+            });
         }
+        // every price was paid by both endpoints of its edge
+        dualValue = paidWeight(graph, residualWeight) / 2;
+        return vertexCover;
+    }
 
-        Pair<Integer, Integer> nonTightVertices = this.getFirstNonTightVertexPair(edgePrices, graph);
+    private static double paidWeight(Graph graph, int[] residualWeight) {
+        long paid = 0;
+        for (int vertex = 0; vertex < graph.getNumVertices(); vertex++) {
+            paid += graph.getWeight(vertex) - residualWeight[vertex];
+        }
+        return paid;
+    }
 
-        while (nonTightVertices != null) {
-            int u = nonTightVertices.getValue0();
-            int v = nonTightVertices.getValue1();
+    /*
+        Every round has three parallel steps over the vertices that still have uncovered edges, each step only writes
+        the entries of its own vertex: compute the offers, pay the edge prices and decide who joins the cover, then
+        count the uncovered edges that are left. Both endpoints compute the price of an edge from the same two offers,
+        so no price is stored, and the result does not depend on the number of threads.
+     */
+    private BitSet priceInRounds(Graph graph, ForkJoinPool pool, CancellationToken cancellationToken) {
+        int numberOfVertices = graph.getNumVertices();
+        // a sparse graph already has its rows in arrays, other graphs are indexed first
+        int[] offsets;
+        int[] neighbours;
+        if (graph instanceof SparseGraph sparseGraph) {
+            offsets = sparseGraph.getOffsets();
+            neighbours = sparseGraph.getNeighbourArray();
+        } else {
+            EdgeIndex edgeIndex = new EdgeIndex(graph);
+            offsets = edgeIndex.getOffsets();
+            neighbours = edgeIndex.getNeighbourArray();
+        }
 
-            int uWeight = graph.getWeight(u);
-            int vWeight = graph.getWeight(v);
+        double[] residualWeight = new double[numberOfVertices];
+        double[] paid = new double[numberOfVertices];
+        double[] offer = new double[numberOfVertices];
+        int[] uncoveredDegree = new int[numberOfVertices];
+        // tight vertices form the cover, joining marks the ones that become tight in the current round
+        boolean[] tight = new boolean[numberOfVertices];
+        boolean[] joining = new boolean[numberOfVertices];
 
-            int uPrice = this.getVertexPrice(u, edgePrices);
-            int vPrice = this.getVertexPrice(v, edgePrices);
+        for (int vertex = 0; vertex < numberOfVertices; vertex++) {
+            residualWeight[vertex] = graph.getWeight(vertex);
+            uncoveredDegree[vertex] = offsets[vertex + 1] - offsets[vertex];
+        }
+        // vertices with uncovered edges, in increasing order
+        int[] active = IntStream.range(0, numberOfVertices).filter(vertex -> uncoveredDegree[vertex] > 0).toArray();
 
-            int uDifference = uWeight - uPrice;
-            int vDifference = vWeight - vPrice;
+        int rounds = 0;
+        while (active.length > 0 && !cancellationToken.isCancelled()) {
+            int[] current = active;
+            pool.submit(() -> IntStream.of(current).parallel().forEach(vertex ->
+                    offer[vertex] = residualWeight[vertex] / uncoveredDegree[vertex])).join();
 
-            int price = Math.min(uDifference, vDifference);
+            pool.submit(() -> IntStream.of(current).parallel().forEach(vertex -> {
+                double payment = 0;
+                // whether every uncovered edge was priced at the offer of this vertex, then it paid all of it
+                boolean paysOffer = true;
+                for (int slot = offsets[vertex]; slot < offsets[vertex + 1]; slot++) {
+                    int neighbour = neighbours[slot];
+                    if (tight[neighbour]) {
+                        continue;
+                    }
+                    if (offer[neighbour] < offer[vertex]) {
+                        payment += offer[neighbour];
+                        paysOffer = false;
+                    } else {
+                        payment += offer[vertex];
+                    }
+                }
+                paid[vertex] += payment;
+                residualWeight[vertex] = paysOffer ? 0 : residualWeight[vertex] - payment;
+                joining[vertex] = residualWeight[vertex] <= epsilon * graph.getWeight(vertex);
+            })).join();
 
-            if (price == uDifference) {
-                vertexCover.set(u);
-            } else {
-                vertexCover.set(v);
+            for (int vertex : current) {
+                tight[vertex] |= joining[vertex];
             }
 
-            this.setEdgePrice(u, v, edgePrices, price);
-            if (intermediateSolutionReporter != null)
-                intermediateSolutionReporter.solutionCallback(vertexCover);
-            nonTightVertices = this.getFirstNonTightVertexPair(edgePrices, graph);
+            pool.submit(() -> IntStream.of(current).parallel().forEach(vertex -> {
+                int count = 0;
+                if (!tight[vertex]) {
+                    for (int slot = offsets[vertex]; slot < offsets[vertex + 1]; slot++) {
+                        if (!tight[neighbours[slot]]) {
+                            count++;
+                        }
+                    }
+                }
+                uncoveredDegree[vertex] = count;
+            })).join();
+            active = pool.submit(() -> IntStream.of(current).parallel()
+                    .filter(vertex -> uncoveredDegree[vertex] > 0).toArray()).join();
+            rounds++;
+        }
+        logger.info("Priced the edges in {} rounds", rounds);
+
+        // every price was paid by both endpoints of its edge
+        double paidWeight = 0;
+        BitSet vertexCover = new BitSet(numberOfVertices);
+        for (int vertex = 0; vertex < numberOfVertices; vertex++) {
+            paidWeight += paid[vertex];
+            if (tight[vertex]) {
+                vertexCover.set(vertex);
+            }
         }
+        dualValue = paidWeight / 2;
+        return active.length > 0 ? completeCover(graph, vertexCover) : vertexCover;
+    }
 
+    /*
+        Stopping early leaves edges without a tight endpoint, the cheaper endpoint of each of them is added, so the
+        result is still a vertex cover
+     */
+    private BitSet completeCover(Graph graph, BitSet vertexCover) {
+        for (int u = 0; u < graph.getNumVertices(); u++) {
+            int source = u;
+            graph.forEachNeighbour(u, v -> {
+                if (!vertexCover.get(source) && !vertexCover.get(v)) {
+                    vertexCover.set(graph.getWeight(source) <= graph.getWeight(v) ? source : v);
+                }
+            });
+        }
         return vertexCover;
     }
 
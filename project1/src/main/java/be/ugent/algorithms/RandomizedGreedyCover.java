@@ -0,0 +1,100 @@
+package be.ugent.algorithms;
+
+import be.ugent.graphs.EdgeIndex;
+import be.ugent.graphs.Graph;
+
+import java.util.BitSet;
+import java.util.SplittableRandom;
+
+/**
+ * Randomized greedy construction of vertex covers for {@link FixedSetSearch}. Every step adds a random one of the
+ * vertices with the most uncovered edges per unit of weight, until all edges are covered.
+ * <p>
+ * The number of uncovered edges of every vertex outside the cover is kept up to date in O(degree) per added vertex,
+ * and the vertices are kept in a {@link VertexHeap} by that score, so the candidates of a step are the top of the heap
+ * instead of a sorted copy of all vertices. A whole construction takes O(m log n).
+ * <p>
+ * The graph is only read, so one instance can construct covers on several threads at the same time.
+ */
+public class RandomizedGreedyCover {
+
+    private final Graph graph;
+    private final EdgeIndex edgeIndex;
+    private final int candidateListSize;
+
+    /**
+     * @param candidateListSize Number of best vertices a step chooses from
+     */
+    public RandomizedGreedyCover(Graph graph, EdgeIndex edgeIndex, int candidateListSize) {
+        this.graph = graph;
+        this.edgeIndex = edgeIndex;
+        this.candidateListSize = candidateListSize;
+    }
+
+    /**
+     * @param fixedSet Vertices that are in the cover from the start, null for none. It is not changed
+     * @param random   Picks one of the candidates in every step
+     * @return A vertex cover that contains the fixed set
+     */
+    public BitSet construct(BitSet fixedSet, SplittableRandom random) {
+        int numVertices = graph.getNumVertices();
+        int[] offsets = edgeIndex.getOffsets();
+        int[] neighbours = edgeIndex.getNeighbourArray();
+        BitSet cover = fixedSet == null ? new BitSet(numVertices) : (BitSet) fixedSet.clone();
+
+        // number of neighbours outside the cover of every vertex outside the cover, which is its number of
+        // uncovered edges
+        int[] uncoveredDegree = new int[numVertices];
+        double[] scores = new double[numVertices];
+        // no ages, ties go to the lowest id
+        VertexHeap candidates = new VertexHeap(numVertices, scores, new int[numVertices]);
+        long uncoveredEdges = 0;
+        for (int vertex = cover.nextClearBit(0); vertex < numVertices; vertex = cover.nextClearBit(vertex + 1)) {
+            for (int slot = offsets[vertex]; slot < offsets[vertex + 1]; slot++) {
+                if (!cover.get(neighbours[slot])) {
+                    uncoveredDegree[vertex]++;
+                }
+            }
+            if (uncoveredDegree[vertex] > 0) {
+                scores[vertex] = (double) uncoveredDegree[vertex] / graph.getWeight(vertex);
+                candidates.add(vertex);
+                uncoveredEdges += uncoveredDegree[vertex];
+            }
+        }
+        // every uncovered edge was counted at both of its endpoints
+        uncoveredEdges /= 2;
+
+        int[] best = new int[candidateListSize];
+        while (uncoveredEdges > 0) {
+            // take the best candidates off the heap, keep one and put the others back
+            int count = 0;
+            while (count < candidateListSize && !candidates.isEmpty()) {
+                best[count] = candidates.peek();
+                candidates.remove(best[count++]);
+            }
+            int chosen = random.nextInt(count);
+            for (int i = 0; i < count; i++) {
+                if (i != chosen) {
+                    candidates.add(best[i]);
+                }
+            }
+
+            int vertex = best[chosen];
+            cover.set(vertex);
+            uncoveredEdges -= uncoveredDegree[vertex];
+            for (int slot = offsets[vertex]; slot < offsets[vertex + 1]; slot++) {
+                int node = neighbours[slot];
+                if (cover.get(node)) {
+                    continue;
+                }
+                if (--uncoveredDegree[node] == 0) {
+                    candidates.remove(node);
+                } else {
+                    scores[node] = (double) uncoveredDegree[node] / graph.getWeight(node);
+                    candidates.update(node);
+                }
+            }
+        }
+        return cover;
+    }
+}
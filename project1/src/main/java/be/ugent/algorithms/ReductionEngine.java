@@ -0,0 +1,155 @@
+package be.ugent.algorithms;
+
+import be.ugent.graphs.BasicGraph;
+
+import java.util.BitSet;
+
+/**
+ * Applies the BMWVC reduction rules (degree 0, adjacency, degree 1 and degree 2) until none of them applies anymore.
+ * Instead of rescanning the whole graph after every change, the engine keeps a worklist of vertices whose
+ * neighbourhood changed, and only re-checks the rules around those vertices. Reduced vertices are removed from the
+ * graph, so a reduction can be undone through {@link BasicGraph#restoreVertices(int)}.
+ */
+public class ReductionEngine {
+
+    private final BasicGraph graph;
+
+    // Vertices whose neighbourhood changed since they were last checked, every vertex is queued at most once
+    private final int[] worklist;
+    private int worklistSize;
+    private final BitSet queued;
+
+    // Cover the current reduction adds to, and the weight it added so far
+    private BitSet cover;
+    private int addedWeight;
+
+    public ReductionEngine(BasicGraph graph) {
+        this.graph = graph;
+        this.worklist = new int[graph.getNumVertices()];
+        this.queued = new BitSet(graph.getNumVertices());
+    }
+
+    /**
+     * Reduce the whole graph
+     *
+     * @param cover BitSet to which the vertices that are forced into the cover are added
+     * @return Total weight of the vertices added to the cover
+     */
+    public int reduce(BitSet cover) {
+        BitSet active = graph.getActiveVertices();
+        for (int vertex = active.nextSetBit(0); vertex >= 0; vertex = active.nextSetBit(vertex + 1)) {
+            enqueue(vertex);
+        }
+        return process(cover);
+    }
+
+    private int process(BitSet cover) {
+        this.cover = cover;
+        this.addedWeight = 0;
+        while (worklistSize > 0) {
+            int vertex = worklist[--worklistSize];
+            queued.clear(vertex);
+            if (graph.isActive(vertex)) {
+                applyRules(vertex);
+            }
+        }
+        this.cover = null;
+        return addedWeight;
+    }
+
+    private void enqueue(int vertex) {
+        if (!queued.get(vertex)) {
+            queued.set(vertex);
+            worklist[worklistSize++] = vertex;
+        }
+    }
+
+    /*
+        Check every rule that can apply around the given vertex, and apply the first one that does
+     */
+    private void applyRules(int vertex) {
+        int degree = graph.degree(vertex);
+        if (degree == 0) {
+            remove(vertex);
+            return;
+        }
+
+        BitSet adjacency = graph.getAdjacencyBitSet(vertex);
+        if (graph.getWeight(vertex) >= graph.getWeight(adjacency)) {
+            // adjacency rule: the neighbourhood is never heavier than the vertex itself
+            for (int node = adjacency.nextSetBit(0); node >= 0; node = adjacency.nextSetBit(node + 1)) {
+                take(node);
+            }
+            remove(vertex);
+            return;
+        }
+
+        if (degree == 1) {
+            // degree 1 rule, checked from the leaf: its neighbour is the only vertex it can be a leaf of
+            applyDegree1(adjacency.nextSetBit(0));
+        } else if (degree == 2) {
+            // degree 2 rule, checked from the common neighbour of degree 2
+            int first = adjacency.nextSetBit(0);
+            applyDegree2(first, adjacency.nextSetBit(first + 1));
+        }
+    }
+
+    /*
+        Take the vertex in the cover if its leaves together weigh at least as much
+     */
+    private void applyDegree1(int vertex) {
+        BitSet adjacency = graph.getAdjacencyBitSet(vertex);
+        int leafWeight = 0;
+        for (int node = adjacency.nextSetBit(0); node >= 0; node = adjacency.nextSetBit(node + 1)) {
+            if (graph.degree(node) == 1) {
+                leafWeight += graph.getWeight(node);
+            }
+        }
+        if (graph.getWeight(vertex) <= leafWeight) {
+            for (int node = adjacency.nextSetBit(0); node >= 0; node = adjacency.nextSetBit(node + 1)) {
+                if (graph.degree(node) == 1) {
+                    remove(node);
+                }
+            }
+            take(vertex);
+        }
+    }
+
+    /*
+        Take vi and vj in the cover if their common neighbours of degree 2 together weigh at least as much
+     */
+    private void applyDegree2(int vi, int vj) {
+        BitSet adjacencyI = graph.getAdjacencyBitSet(vi);
+        BitSet adjacencyJ = graph.getAdjacencyBitSet(vj);
+        if (graph.degree(vi) > graph.degree(vj)) {
+            BitSet temp = adjacencyI;
+            adjacencyI = adjacencyJ;
+            adjacencyJ = temp;
+        }
+        int commonWeight = 0;
+        for (int node = adjacencyI.nextSetBit(0); node >= 0; node = adjacencyI.nextSetBit(node + 1)) {
+            if (graph.degree(node) == 2 && adjacencyJ.get(node)) {
+                commonWeight += graph.getWeight(node);
+            }
+        }
+        if (graph.getWeight(vi) + graph.getWeight(vj) <= commonWeight) {
+            take(vi);
+            take(vj);
+        }
+    }
+
+    private void take(int vertex) {
+        cover.set(vertex);
+        addedWeight += graph.getWeight(vertex);
+        remove(vertex);
+    }
+
+    // Remove the vertex and queue its neighbours, whose neighbourhood just changed
+    private void remove(int vertex) {
+        graph.removeVertex(vertex);
+        BitSet adjacency = graph.getAdjacencyBitSet(vertex);
+        for (int node = adjacency.nextSetBit(0); node >= 0; node = adjacency.nextSetBit(node + 1)) {
+            enqueue(node);
+        }
+    }
+}
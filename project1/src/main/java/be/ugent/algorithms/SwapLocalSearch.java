@@ -0,0 +1,194 @@
+package be.ugent.algorithms;
+
+import be.ugent.graphs.EdgeIndex;
+import be.ugent.graphs.Graph;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Local search for vertex covers with the moves of {@link FixedSetSearch}. An element swap takes a vertex out of the
+ * cover and puts its neighbours outside the cover in. A pair swap does the same for two non-adjacent vertices at
+ * once. A swap is applied when it makes the cover lighter.
+ * <p>
+ * For every vertex, the total weight of its neighbours outside the cover is kept up to date in O(degree) per vertex
+ * that enters or leaves the cover. Then an element swap is checked in O(1), and only vertices whose neighbourhood
+ * changed are checked again. A pair swap can only pay off when both vertices have a neighbour outside the cover in
+ * common, because no element swap pays off anymore when pairs are tried. So pairs are found by walking two steps from
+ * every vertex of the cover through the vertices outside it, instead of trying all n² pairs.
+ * <p>
+ * The graph is only read, so one instance can improve covers on several threads at the same time.
+ */
+public class SwapLocalSearch {
+
+    private final Graph graph;
+    private final EdgeIndex edgeIndex;
+
+    public SwapLocalSearch(Graph graph, EdgeIndex edgeIndex) {
+        this.graph = graph;
+        this.edgeIndex = edgeIndex;
+    }
+
+    /**
+     * Apply improving swaps until none is left: element swaps as long as there are any, then one pair swap at a time.
+     *
+     * @param cover             A vertex cover, it is not changed
+     * @param random            Picks the order of the element swaps and which improving pair swap is applied
+     * @param cancellationToken Stops the search early, every swap keeps the cover valid
+     * @return A cover that is at most as heavy as the given one
+     */
+    public BitSet improve(BitSet cover, SplittableRandom random, CancellationToken cancellationToken) {
+        return new Run(cover).improve(random, cancellationToken);
+    }
+
+    // State of one improve() call
+    private class Run {
+
+        private final int[] offsets = edgeIndex.getOffsets();
+        private final int[] neighbours = edgeIndex.getNeighbourArray();
+
+        private final BitSet cover;
+        // total weight of the neighbours of every vertex that are not in the cover
+        private final int[] outsideWeight;
+
+        // vertices of the cover whose element swap has to be checked, in no particular order
+        private final int[] queue;
+        private int queueSize;
+        private final BitSet queued;
+
+        Run(BitSet cover) {
+            int numVertices = graph.getNumVertices();
+            this.cover = (BitSet) cover.clone();
+            this.outsideWeight = new int[numVertices];
+            for (int vertex = cover.nextClearBit(0); vertex < numVertices; vertex = cover.nextClearBit(vertex + 1)) {
+                for (int slot = offsets[vertex]; slot < offsets[vertex + 1]; slot++) {
+                    outsideWeight[neighbours[slot]] += graph.getWeight(vertex);
+                }
+            }
+            this.queue = new int[numVertices];
+            this.queued = new BitSet(numVertices);
+            for (int vertex = cover.nextSetBit(0); vertex >= 0; vertex = cover.nextSetBit(vertex + 1)) {
+                enqueue(vertex);
+            }
+        }
+
+        BitSet improve(SplittableRandom random, CancellationToken cancellationToken) {
+            while (true) {
+                // element swaps, in random order, until none of them pays off
+                while (queueSize > 0 && !cancellationToken.isCancelled()) {
+                    int index = random.nextInt(queueSize);
+                    int vertex = queue[index];
+                    queue[index] = queue[--queueSize];
+                    queued.clear(vertex);
+                    if (cover.get(vertex) && graph.getWeight(vertex) > outsideWeight[vertex]) {
+                        swap(vertex, -1);
+                    }
+                }
+
+                if (cancellationToken.isCancelled()) {
+                    break;
+                }
+                List<int[]> pairs = pairSwapImprovements();
+                if (pairs.isEmpty()) {
+                    break;
+                }
+                int[] pair = pairs.get(random.nextInt(pairs.size()));
+                swap(pair[0], pair[1]);
+            }
+            return cover;
+        }
+
+        /*
+            All pairs of non-adjacent vertices of the cover whose swap makes the cover lighter. For every vertex of
+            the cover, the weight it shares with every other vertex of the cover is summed over their common
+            neighbours outside the cover.
+         */
+        private List<int[]> pairSwapImprovements() {
+            int numVertices = graph.getNumVertices();
+            List<int[]> improvements = new ArrayList<>();
+            int[] sharedWeight = new int[numVertices];
+            // sharedWeight[v] belongs to the current first vertex if stamp[v] is that vertex + 1
+            int[] stamp = new int[numVertices];
+            int[] partners = new int[numVertices];
+            for (int first = cover.nextSetBit(0); first >= 0; first = cover.nextSetBit(first + 1)) {
+                int numPartners = 0;
+                for (int slot = offsets[first]; slot < offsets[first + 1]; slot++) {
+                    int outside = neighbours[slot];
+                    if (cover.get(outside)) {
+                        continue;
+                    }
+                    // all neighbours of a vertex outside the cover are in it
+                    for (int next = offsets[outside]; next < offsets[outside + 1]; next++) {
+                        int second = neighbours[next];
+                        if (second <= first) {
+                            continue;
+                        }
+                        if (stamp[second] != first + 1) {
+                            stamp[second] = first + 1;
+                            sharedWeight[second] = 0;
+                            partners[numPartners++] = second;
+                        }
+                        sharedWeight[second] += graph.getWeight(outside);
+                    }
+                }
+                for (int i = 0; i < numPartners; i++) {
+                    int second = partners[i];
+                    int added = outsideWeight[first] + outsideWeight[second] - sharedWeight[second];
+                    if (graph.getWeight(first) + graph.getWeight(second) > added && !graph.hasEdge(first, second)) {
+                        improvements.add(new int[]{first, second});
+                    }
+                }
+            }
+            return improvements;
+        }
+
+        /*
+            Take the vertex, and the second one if it is not -1, out of the cover and put all of their neighbours
+            that are outside the cover in
+         */
+        private void swap(int first, int second) {
+            remove(first);
+            if (second != -1) {
+                remove(second);
+            }
+            addOutsideNeighbours(first);
+            if (second != -1) {
+                addOutsideNeighbours(second);
+            }
+        }
+
+        private void remove(int vertex) {
+            cover.clear(vertex);
+            for (int slot = offsets[vertex]; slot < offsets[vertex + 1]; slot++) {
+                outsideWeight[neighbours[slot]] += graph.getWeight(vertex);
+            }
+        }
+
+        private void addOutsideNeighbours(int vertex) {
+            for (int slot = offsets[vertex]; slot < offsets[vertex + 1]; slot++) {
+                int node = neighbours[slot];
+                if (cover.get(node)) {
+                    continue;
+                }
+                cover.set(node);
+                // fewer neighbours of its neighbours are outside the cover now, their swaps may pay off
+                for (int next = offsets[node]; next < offsets[node + 1]; next++) {
+                    int neighbour = neighbours[next];
+                    outsideWeight[neighbour] -= graph.getWeight(node);
+                    if (cover.get(neighbour)) {
+                        enqueue(neighbour);
+                    }
+                }
+            }
+        }
+
+        private void enqueue(int vertex) {
+            if (!queued.get(vertex)) {
+                queued.set(vertex);
+                queue[queueSize++] = vertex;
+            }
+        }
+    }
+}
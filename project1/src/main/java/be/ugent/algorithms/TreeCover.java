@@ -0,0 +1,74 @@
+package be.ugent.algorithms;
+
+import be.ugent.graphs.BasicGraph;
+
+import java.util.BitSet;
+
+/**
+ * Minimum weighted vertex cover of a forest in linear time. Every vertex v gets the weight of the best cover of its
+ * subtree with v in it, w(v) + sum over the children c of min(in(c), out(c)), and without v in it, sum over the
+ * children c of in(c).
+ */
+public class TreeCover {
+
+    private TreeCover() {
+    }
+
+    /**
+     * @param graph Graph whose active vertices form a forest, it is not changed
+     * @return A minimum weight vertex cover of the active vertices
+     */
+    public static BitSet solve(BasicGraph graph) {
+        int numVertices = graph.getNumVertices();
+        int[] parent = new int[numVertices];
+        long[] in = new long[numVertices];
+        long[] out = new long[numVertices];
+        // breadth first order of every tree, parents always come before their children
+        int[] order = new int[graph.getNumActiveVertices()];
+        int size = 0;
+
+        BitSet visited = new BitSet(numVertices);
+        BitSet active = graph.getActiveVertices();
+        for (int root = active.nextSetBit(0); root >= 0; root = active.nextSetBit(root + 1)) {
+            if (visited.get(root)) {
+                continue;
+            }
+            visited.set(root);
+            parent[root] = -1;
+            int front = size;
+            order[size++] = root;
+            while (front < size) {
+                int vertex = order[front++];
+                BitSet adjacency = graph.getAdjacencyBitSet(vertex);
+                for (int node = adjacency.nextSetBit(0); node >= 0; node = adjacency.nextSetBit(node + 1)) {
+                    if (!visited.get(node)) {
+                        visited.set(node);
+                        parent[node] = vertex;
+                        order[size++] = node;
+                    }
+                }
+            }
+        }
+
+        // children before parents
+        for (int i = size - 1; i >= 0; i--) {
+            int vertex = order[i];
+            in[vertex] += graph.getWeight(vertex);
+            if (parent[vertex] >= 0) {
+                in[parent[vertex]] += Math.min(in[vertex], out[vertex]);
+                out[parent[vertex]] += in[vertex];
+            }
+        }
+
+        // parents before children: a vertex must be in the cover if its parent is not
+        BitSet cover = new BitSet(numVertices);
+        for (int i = 0; i < size; i++) {
+            int vertex = order[i];
+            boolean forced = parent[vertex] >= 0 && !cover.get(parent[vertex]);
+            if (forced || in[vertex] <= out[vertex]) {
+                cover.set(vertex);
+            }
+        }
+        return cover;
+    }
+}
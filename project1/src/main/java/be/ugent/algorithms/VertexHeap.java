@@ -0,0 +1,130 @@
+package be.ugent.algorithms;
+
+import java.util.Arrays;
+
+/**
+ * Indexed binary max-heap of vertices, ordered by a score array that is owned by the caller: the highest score first,
+ * ties broken in favour of the lowest age and then the lowest id. Every vertex knows its position in the heap, so a
+ * vertex can be removed or moved after a change of its score or age in O(log n), without allocating.
+ */
+public class VertexHeap {
+
+    private final double[] scores;
+    private final int[] ages;
+
+    private final int[] heap;
+    // position of every vertex in heap, -1 if it is not in the heap
+    private final int[] position;
+    private int size;
+
+    /**
+     * @param numVertices Number of vertices, vertices are numbered 0 .. numVertices - 1
+     * @param scores      Score of every vertex, the caller calls {@link #update(int)} after changing one
+     * @param ages        Age of every vertex, the caller calls {@link #update(int)} after changing one
+     */
+    public VertexHeap(int numVertices, double[] scores, int[] ages) {
+        this.scores = scores;
+        this.ages = ages;
+        this.heap = new int[numVertices];
+        this.position = new int[numVertices];
+        Arrays.fill(position, -1);
+    }
+
+    public boolean contains(int vertex) {
+        return position[vertex] >= 0;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * @return The vertex with the highest priority, or -1 if the heap is empty
+     */
+    public int peek() {
+        return size == 0 ? -1 : heap[0];
+    }
+
+    // Adds the vertex, if it is not in the heap yet
+    public void add(int vertex) {
+        if (position[vertex] >= 0) {
+            return;
+        }
+        heap[size] = vertex;
+        position[vertex] = size;
+        size++;
+        siftUp(size - 1);
+    }
+
+    // Removes the vertex, if it is in the heap
+    public void remove(int vertex) {
+        int index = position[vertex];
+        if (index < 0) {
+            return;
+        }
+        position[vertex] = -1;
+        int last = heap[--size];
+        if (index < size) {
+            heap[index] = last;
+            position[last] = index;
+            siftDown(index);
+            siftUp(index);
+        }
+    }
+
+    // Restores the order after the score or age of the vertex changed, if it is in the heap
+    public void update(int vertex) {
+        int index = position[vertex];
+        if (index >= 0) {
+            siftDown(index);
+            siftUp(index);
+        }
+    }
+
+    // Whether vertex a comes before vertex b
+    private boolean before(int a, int b) {
+        if (scores[a] != scores[b]) {
+            return scores[a] > scores[b];
+        }
+        if (ages[a] != ages[b]) {
+            return ages[a] < ages[b];
+        }
+        return a < b;
+    }
+
+    private void siftUp(int index) {
+        int vertex = heap[index];
+        while (index > 0) {
+            int parent = (index - 1) / 2;
+            if (!before(vertex, heap[parent])) {
+                break;
+            }
+            heap[index] = heap[parent];
+            position[heap[index]] = index;
+            index = parent;
+        }
+        heap[index] = vertex;
+        position[vertex] = index;
+    }
+
+    private void siftDown(int index) {
+        int vertex = heap[index];
+        while (true) {
+            int child = 2 * index + 1;
+            if (child >= size) {
+                break;
+            }
+            if (child + 1 < size && before(heap[child + 1], heap[child])) {
+                child++;
+            }
+            if (!before(heap[child], vertex)) {
+                break;
+            }
+            heap[index] = heap[child];
+            position[heap[index]] = index;
+            index = child;
+        }
+        heap[index] = vertex;
+        position[vertex] = index;
+    }
+}
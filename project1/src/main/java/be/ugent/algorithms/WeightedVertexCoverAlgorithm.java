@@ -2,6 +2,7 @@ package be.ugent.algorithms;
 
 
 import be.ugent.graphs.BasicGraph;
+import be.ugent.graphs.Graph;
 import be.ugent.benchmark.IntermediateSolutionReporter;
 
 import java.util.BitSet;
@@ -14,11 +15,53 @@ import java.util.BitSet;
 public interface WeightedVertexCoverAlgorithm {
 
 	/**
-	 * Finds and returns the minimum vertex cover of the given graph.
+	 * Finds and returns the minimum vertex cover of the given graph. Once the token is cancelled, the algorithm stops
+	 * as soon as possible and returns the best vertex cover it has found so far.
 	 *
 	 * @param graph The graph in which to find the minimum vertex cover.
 	 * @param intermediateSolutionReporter A callback that can be used to report intermediate solutions.
+	 * @param cancellationToken The token that is checked in the main loops of the algorithm.
 	 * @return A BitSet representing the vertices in the minimum vertex cover.
 	 */
-	public BitSet calculateMinVertexCover(BasicGraph graph, IntermediateSolutionReporter intermediateSolutionReporter);
+	public BitSet calculateMinVertexCover(BasicGraph graph, IntermediateSolutionReporter intermediateSolutionReporter,
+										  CancellationToken cancellationToken);
+
+	/**
+	 * Finds and returns the minimum vertex cover of the given graph, it only stops early when the thread is
+	 * interrupted.
+	 *
+	 * @param graph The graph in which to find the minimum vertex cover.
+	 * @param intermediateSolutionReporter A callback that can be used to report intermediate solutions.
+	 * @return A BitSet representing the vertices in the minimum vertex cover.
+	 */
+	public default BitSet calculateMinVertexCover(BasicGraph graph, IntermediateSolutionReporter intermediateSolutionReporter) {
+		return calculateMinVertexCover(graph, intermediateSolutionReporter, new CancellationToken());
+	}
+
+	/**
+	 * Finds and returns the minimum vertex cover of a graph in any representation.
+	 * Algorithms that work on BitSet adjacency get the graph converted to a {@link BasicGraph}, algorithms that only
+	 * need neighbour iteration can override this method to run on a {@link be.ugent.graphs.SparseGraph} directly.
+	 *
+	 * @param graph The graph in which to find the minimum vertex cover.
+	 * @param intermediateSolutionReporter A callback that can be used to report intermediate solutions.
+	 * @param cancellationToken The token that is checked in the main loops of the algorithm.
+	 * @return A BitSet representing the vertices in the minimum vertex cover.
+	 */
+	public default BitSet calculateMinVertexCover(Graph graph, IntermediateSolutionReporter intermediateSolutionReporter,
+												  CancellationToken cancellationToken) {
+		return calculateMinVertexCover(BasicGraph.of(graph), intermediateSolutionReporter, cancellationToken);
+	}
+
+	/**
+	 * Finds and returns the minimum vertex cover of a graph in any representation, it only stops early when the
+	 * thread is interrupted.
+	 *
+	 * @param graph The graph in which to find the minimum vertex cover.
+	 * @param intermediateSolutionReporter A callback that can be used to report intermediate solutions.
+	 * @return A BitSet representing the vertices in the minimum vertex cover.
+	 */
+	public default BitSet calculateMinVertexCover(Graph graph, IntermediateSolutionReporter intermediateSolutionReporter) {
+		return calculateMinVertexCover(graph, intermediateSolutionReporter, new CancellationToken());
+	}
 }
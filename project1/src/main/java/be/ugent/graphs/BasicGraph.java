@@ -3,13 +3,10 @@ package be.ugent.graphs;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
-import java.io.*;
-import java.net.URISyntaxException;
-import java.net.URL;
-import java.nio.file.Paths;
 import java.util.*;
+import java.util.function.IntConsumer;
 
-public class BasicGraph {
+public class BasicGraph implements Graph {
 
     private static final Logger logger = LogManager.getLogger(BasicGraph.class);
 
@@ -18,191 +15,216 @@ public class BasicGraph {
     protected BitSet[] adjacencyList;
     protected int numVertices;
     protected int numEdges;
-    protected List<Integer> weights;
+    protected int[] weights;
+    protected long totalWeight;
+
+    // degree[v] is the number of neighbours of v, kept up to date by addEdge and removeVertex
+    protected int[] degree;
+    // Vertices sorted by degree: the active vertices of degree d are degreeOrder[bucketStart[d]] up to (but excluding)
+    // degreeOrder[bucketStart[d + 1]], removed vertices come before bucketStart[0], and degreePosition[v] is the index
+    // of v in degreeOrder
+    protected int[] degreeOrder;
+    protected int[] degreePosition;
+    protected int[] bucketStart;
+
+    // Vertices that have not been removed, and the number of vertices and edges left between them
+    protected BitSet activeVertices;
+    protected int numActiveVertices;
+    protected int numActiveEdges;
+
+    // Removed vertices in order of removal, so removals can be undone in reverse order
+    protected int[] trail;
+    protected int trailSize;
 
     public BasicGraph(BasicGraph graph) {
         this.adjacencyList = graph.adjacencyList;
         this.numVertices = graph.numVertices;
+        this.numEdges = graph.numEdges;
         this.weights = graph.weights;
+        this.totalWeight = graph.totalWeight;
+        this.degree = graph.degree;
+        this.degreeOrder = graph.degreeOrder;
+        this.degreePosition = graph.degreePosition;
+        this.bucketStart = graph.bucketStart;
+        this.activeVertices = graph.activeVertices;
+        this.numActiveVertices = graph.numActiveVertices;
+        this.numActiveEdges = graph.numActiveEdges;
+        this.trail = graph.trail;
+        this.trailSize = graph.trailSize;
         this.numVertices = this.getNumVertices();
     }
 
-    public BasicGraph(BitSet[] adjacencyList, List<Integer> weights) {
+    public BasicGraph(BitSet[] adjacencyList, int[] weights) {
         this.adjacencyList = adjacencyList;
         this.numVertices = adjacencyList.length;
         this.weights = weights;
+        this.totalWeight = sum(weights);
         this.numVertices = this.getNumVertices();
+        initDegrees();
+        this.numEdges = this.numActiveEdges;
     }
 
     public BasicGraph(String graphFilename) {
-        int expectedNumberOfEdges = -1; // Initialize with a sentinel value
-        int actualNumberOfEdges;
-
-        URL res = getClass().getClassLoader().getResource(graphFilename);
-        File file = null;
-        try {
-            file = Paths.get(res.toURI()).toFile();
-            try (BufferedReader br = new BufferedReader(new FileReader(file))) {
-                String line;
-                if (graphFilename.endsWith(".clq")) {
-                    while ((line = br.readLine()) != null) {
-                        line = line.trim();
-                        // Skip comment lines or empty lines
-                        if (line.isEmpty() || line.charAt(0) == 'c') {
-                            continue;
-                        }
-                        // Process problem line
-                        if (line.charAt(0) == 'p') {
-                            StringTokenizer st = new StringTokenizer(line);
-                            st.nextToken(); // skip 'p' token
-                            st.nextToken(); // skip problem type (e.g., 'edge')
-                            this.numVertices = Integer.parseInt(st.nextToken());
-                            expectedNumberOfEdges = Integer.parseInt(st.nextToken()); // Store the expected number of
-                                                                                      // edges
-                            // Initialize graph with the number of vertices
-                            adjacencyList = new BitSet[this.numVertices];
-                            for (int i = 0; i < this.numVertices; i++) {
-                                adjacencyList[i] = new BitSet(this.numVertices);
-                            }
-                        } else if (line.charAt(0) == 'e') {
-                            // Process edge line
-                            String[] parts = line.split(" ");
-                            int source = Integer.parseInt(parts[1]) - 1; // DIMACS vertices start from 1
-                            int destination = Integer.parseInt(parts[2]) - 1; // DIMACS vertices start from 1
-                            addEdge(source, destination);
-                        }
-                    }
-                    this.numEdges = this.calculateNumberOfEdges();
-                    actualNumberOfEdges = this.getNumEdges();
-                    if (actualNumberOfEdges != expectedNumberOfEdges) {
-
-                        logger.error(
-                                "Error: The actual number of edges ({}) does not match the expected number ({}).",
-                                actualNumberOfEdges,
-                                expectedNumberOfEdges);
-                        logger.error("Exiting...");
-                        System.exit(1);
-                    }
-                    weights = new ArrayList<>(Collections.nCopies(numVertices, 1));
-                } else if (graphFilename.endsWith(".cwg")) {
-                    boolean isEdgeSection = false;
-                    boolean isWeightSection = false;
-                    boolean isConfigSection = false;
-                    int vertexCounter = 0;
-                    while ((line = br.readLine()) != null) {
-                        line = line.trim();
-                        if (!line.isEmpty() && line.charAt(0) != '#') {
-                            if (line.charAt(0) == '[' && line.charAt(line.length() - 1) == ']' && line.length() > 2) {
-                                switch (line) {
-                                    case "[edges]" -> {
-                                        isEdgeSection = true;
-                                        isWeightSection = false;
-                                        isConfigSection = false;
-                                    }
-                                    case "[weights]" -> {
-                                        isWeightSection = true;
-                                        isEdgeSection = false;
-                                        isConfigSection = false;
-                                    }
-                                    case "[configuration]" -> {
-                                        isConfigSection = true;
-                                        isEdgeSection = false;
-                                        isWeightSection = false;
-                                    }
-                                    default -> {
-                                        // Do nothing
-                                    }
-                                }
-                            } else {
-
-                                if (isConfigSection) {
-                                    if (line.startsWith("vertices")) {
-                                        this.numVertices = Integer.parseInt(line.split(" ")[1]);
-                                        adjacencyList = new BitSet[this.numVertices];
-                                        for (int i = 0; i < this.numVertices; i++) {
-                                            adjacencyList[i] = new BitSet(this.numVertices);
-                                        }
-                                        weights = new ArrayList<>(Collections.nCopies(numVertices, 1));
-                                    } else if (line.startsWith("edges")) {
-                                        this.numEdges = Integer.parseInt(line.split(" ")[1]);
-                                    }
-                                } else if (isWeightSection) {
-                                    if (weights == null) {
-                                        throw new IllegalStateException(
-                                                "Weights section should come after the configuration section");
-                                    }
-                                    if (vertexCounter >= this.numVertices) {
-                                        throw new IllegalStateException(
-                                                "Number of weights exceeds the number of vertices");
-                                    }
-                                    this.weights.set(vertexCounter, Integer.parseInt(line));
-                                    vertexCounter++;
-                                } else if (isEdgeSection) {
-                                    String[] vertices = line.split(" ");
-                                    int source = Integer.parseInt(vertices[0]);
-                                    int destination = Integer.parseInt(vertices[1]);
-                                    this.addEdge(source, destination);
-                                }
-                            }
-                        }
-
-                    }
-                    this.numEdges = this.calculateNumberOfEdges();
-                } else if (graphFilename.endsWith(".mtx")) {
-                    while ((line = br.readLine()) != null) {
-                        line = line.trim();
-                        // Skip comment lines
-                        if (line.isEmpty() || line.charAt(0) == '%') {
-                            continue;
-                        }
-                        // Process problem line
-                        String[] parts = line.split(" ");
-                        if (parts.length == 3) { // This line contains the number of vertices and edges
-                            this.numVertices = Integer.parseInt(parts[0]);
-                            // Initialize graph with the number of vertices
-                            adjacencyList = new BitSet[this.numVertices];
-                            for (int i = 0; i < this.numVertices; i++) {
-                                adjacencyList[i] = new BitSet(this.numVertices);
-                            }
-                            weights = new ArrayList<>(Collections.nCopies(numVertices, 1));
-                        } else if (parts.length == 2) { // This line contains an edge
-                            int source = Integer.parseInt(parts[0]) - 1; // MTX vertices start from 1
-                            int destination = Integer.parseInt(parts[1]) - 1; // MTX vertices start from 1
-                            addEdge(source, destination);
-                        }
-                    }
-                    this.numEdges = this.calculateNumberOfEdges();
-
-                } else {
-                    logger.error("Error: Unsupported file format.");
-                    logger.error("Exiting...");
-                    System.exit(1);
+        this(GraphReader.readEdgeList(graphFilename).toBasicGraph());
+    }
+
+    /**
+     * Get a BitSet representation of the given graph, converting it when it is stored in another form
+     *
+     * @param graph Graph in any representation
+     * @return The graph itself when it is a BasicGraph, a new BasicGraph with the same edges and weights otherwise
+     */
+    public static BasicGraph of(Graph graph) {
+        if (graph instanceof BasicGraph basicGraph) {
+            return basicGraph;
+        }
+        int numVertices = graph.getNumVertices();
+        BitSet[] adjacencyList = new BitSet[numVertices];
+        int[] weights = new int[numVertices];
+        for (int i = 0; i < numVertices; i++) {
+            BitSet adjacency = new BitSet(numVertices);
+            graph.forEachNeighbour(i, adjacency::set);
+            adjacencyList[i] = adjacency;
+            weights[i] = graph.getWeight(i);
+        }
+        return new BasicGraph(adjacencyList, weights);
+    }
+
+    /**
+     * Build a new graph on the given vertices, numbered in increasing order: vertex i of the subgraph is the i-th set
+     * bit of vertices. Only the edges between the given vertices are kept.
+     *
+     * @param vertices Vertices of this graph to keep
+     * @return A new graph with vertices.cardinality() vertices
+     */
+    public BasicGraph inducedSubgraph(BitSet vertices) {
+        int[] newIds = new int[numVertices];
+        int size = 0;
+        for (int vertex = vertices.nextSetBit(0); vertex >= 0; vertex = vertices.nextSetBit(vertex + 1)) {
+            newIds[vertex] = size++;
+        }
+        BitSet[] newAdjacencyList = new BitSet[size];
+        int[] newWeights = new int[size];
+        for (int vertex = vertices.nextSetBit(0); vertex >= 0; vertex = vertices.nextSetBit(vertex + 1)) {
+            BitSet adjacency = new BitSet(size);
+            BitSet oldAdjacency = adjacencyList[vertex];
+            for (int node = oldAdjacency.nextSetBit(0); node >= 0; node = oldAdjacency.nextSetBit(node + 1)) {
+                if (vertices.get(node)) {
+                    adjacency.set(newIds[node]);
                 }
-            } catch (IOException e) {
-                logger.error("Error reading file: {}", e.getMessage());
-                logger.error("Exiting...");
-                System.exit(1);
             }
-        } catch (URISyntaxException e) {
-            logger.error("Error reading file: {}", e.getMessage());
-            logger.error("Exiting...");
-            System.exit(1);
+            newAdjacencyList[newIds[vertex]] = adjacency;
+            newWeights[newIds[vertex]] = weights[vertex];
         }
+        return new BasicGraph(newAdjacencyList, newWeights);
     }
 
     public void addEdge(int source, int destination) {
         if (!adjacencyList[source].get(destination)) {
             numEdges++; // Increment the count when a new edge is added
+            numActiveEdges++;
+            incrementDegree(source);
+            if (source != destination) {
+                incrementDegree(destination);
+            }
         }
 
         adjacencyList[source].set(destination);
         adjacencyList[destination].set(source); // Since it's an undirected graph
     }
 
+    /**
+     * Recalculate the degrees and degree buckets from the adjacency BitSets, marking all vertices active
+     */
+    protected void initDegrees() {
+        activeVertices = new BitSet(numVertices);
+        activeVertices.set(0, numVertices);
+        numActiveVertices = numVertices;
+        trail = new int[numVertices];
+        trailSize = 0;
+        int degreeSum = 0;
+        degree = new int[numVertices];
+        degreeOrder = new int[numVertices];
+        degreePosition = new int[numVertices];
+        bucketStart = new int[numVertices + 2];
+        for (int v = 0; v < numVertices; v++) {
+            degree[v] = adjacencyList[v].cardinality();
+            degreeSum += degree[v];
+            bucketStart[degree[v] + 1]++;
+        }
+        numActiveEdges = degreeSum / 2;
+        for (int d = 1; d < bucketStart.length; d++) {
+            bucketStart[d] += bucketStart[d - 1];
+        }
+        int[] next = Arrays.copyOf(bucketStart, numVertices + 1);
+        for (int v = 0; v < numVertices; v++) {
+            int position = next[degree[v]]++;
+            degreeOrder[position] = v;
+            degreePosition[v] = position;
+        }
+    }
+
+    // Move the vertex to the last slot of its bucket and shrink the bucket, so it becomes the first of the next one
+    private void incrementDegree(int vertex) {
+        int d = degree[vertex];
+        swapDegreePositions(vertex, degreeOrder[bucketStart[d + 1] - 1]);
+        bucketStart[d + 1]--;
+        degree[vertex]++;
+    }
+
+    // Move the vertex to the first slot of its bucket and shrink the bucket, so it becomes the last of the previous one
+    private void decrementDegree(int vertex) {
+        int d = degree[vertex];
+        swapDegreePositions(vertex, degreeOrder[bucketStart[d]]);
+        bucketStart[d]++;
+        degree[vertex]--;
+    }
+
+    // Move the vertex down through all buckets below its own into the region of removed vertices
+    private void deactivate(int vertex) {
+        for (int d = degree[vertex]; d >= 0; d--) {
+            swapDegreePositions(vertex, degreeOrder[bucketStart[d]]);
+            bucketStart[d]++;
+        }
+    }
+
+    // Undo deactivate: the vertex is the last removed one, move it up from bucket 0 into the bucket of its degree
+    private void activate(int vertex) {
+        bucketStart[0]--;
+        for (int d = 0; d < degree[vertex]; d++) {
+            swapDegreePositions(vertex, degreeOrder[bucketStart[d + 1] - 1]);
+            bucketStart[d + 1]--;
+        }
+    }
+
+    private void swapDegreePositions(int vertex1, int vertex2) {
+        int position1 = degreePosition[vertex1];
+        int position2 = degreePosition[vertex2];
+        degreeOrder[position1] = vertex2;
+        degreeOrder[position2] = vertex1;
+        degreePosition[vertex1] = position2;
+        degreePosition[vertex2] = position1;
+    }
+
+    @Override
     public boolean hasEdge(int source, int destination) {
         return adjacencyList[source].get(destination);
     }
 
+    @Override
+    public int[] neighbours(int vertex) {
+        return adjacencyList[vertex].stream().toArray();
+    }
+
+    @Override
+    public void forEachNeighbour(int vertex, IntConsumer action) {
+        BitSet adjacency = adjacencyList[vertex];
+        for (int i = adjacency.nextSetBit(0); i >= 0; i = adjacency.nextSetBit(i + 1)) {
+            action.accept(i);
+        }
+    }
+
+    @Override
     public BasicGraph copy() {
         BitSet[] newAdjecencyLists = new BitSet[this.adjacencyList.length];
         for (int i = 0; i < this.adjacencyList.length; i++) {
@@ -210,28 +232,110 @@ public class BasicGraph {
             set.or(adjacencyList[i]);
             newAdjecencyLists[i] = set;
         }
-        ArrayList<Integer> newWeigths = new ArrayList<>(weights);
-        return new BasicGraph(newAdjecencyLists, newWeigths);
+        // share nothing, but keep the removed vertices and degree buckets as they are
+        BasicGraph copy = new BasicGraph(this);
+        copy.adjacencyList = newAdjecencyLists;
+        copy.weights = weights.clone();
+        copy.degree = degree.clone();
+        copy.degreeOrder = degreeOrder.clone();
+        copy.degreePosition = degreePosition.clone();
+        copy.bucketStart = bucketStart.clone();
+        copy.activeVertices = (BitSet) activeVertices.clone();
+        copy.trail = trail.clone();
+        return copy;
     }
 
+    /**
+     * Remove a vertex from the graph, touching only the rows of its neighbours. The row of the removed vertex keeps
+     * the neighbours it had at the time of removal. Removing a vertex twice has no effect.
+     *
+     * @param vertex Index of the vertex
+     */
     public void removeVertex(int vertex) {
-        for (int node = 0; node < numVertices; node++) {
-            getAdjacencyBitSet(node).clear(vertex);
+        if (!activeVertices.get(vertex)) {
+            return;
+        }
+        BitSet adjacency = adjacencyList[vertex];
+        for (int node = adjacency.nextSetBit(0); node >= 0; node = adjacency.nextSetBit(node + 1)) {
+            adjacencyList[node].clear(vertex);
+            decrementDegree(node);
+        }
+        numActiveEdges -= degree[vertex];
+        deactivate(vertex);
+        activeVertices.clear(vertex);
+        numActiveVertices--;
+        trail[trailSize++] = vertex;
+    }
+
+    /**
+     * Get the number of removals so far, to be passed to {@link #restoreVertices(int)} later
+     *
+     * @return Current size of the removal trail
+     */
+    public int getTrailSize() {
+        return trailSize;
+    }
+
+    /**
+     * Undo removals in reverse order until only the given number of removals is left. Every restored vertex is
+     * reconnected to the neighbours stored in its row, which are all active again at that point.
+     *
+     * @param trailSize Size of the trail to go back to, as returned by {@link #getTrailSize()}
+     */
+    public void restoreVertices(int trailSize) {
+        while (this.trailSize > trailSize) {
+            int vertex = trail[--this.trailSize];
+            activate(vertex);
+            activeVertices.set(vertex);
+            numActiveVertices++;
+            numActiveEdges += degree[vertex];
+            BitSet adjacency = adjacencyList[vertex];
+            for (int node = adjacency.nextSetBit(0); node >= 0; node = adjacency.nextSetBit(node + 1)) {
+                adjacencyList[node].set(vertex);
+                incrementDegree(node);
+            }
         }
     }
 
+    public boolean isActive(int vertex) {
+        return activeVertices.get(vertex);
+    }
+
+    /**
+     * @return The vertices that have not been removed, must not be modified
+     */
+    public BitSet getActiveVertices() {
+        return activeVertices;
+    }
+
+    public int getNumActiveVertices() {
+        return numActiveVertices;
+    }
+
+    public int getNumActiveEdges() {
+        return numActiveEdges;
+    }
+
     public void swapVertices(int vertex1, int vertex2) {
         if (vertex1 == vertex2) {
             return; // No need to swap if the vertices are the same
         }
         // Swap weights for vertex1 and vertex2
-        Collections.swap(weights, vertex1, vertex2);
+        int tempWeight = weights[vertex1];
+        weights[vertex1] = weights[vertex2];
+        weights[vertex2] = tempWeight;
 
         // Swap adjacency information for vertex1 and vertex2
         BitSet temp = adjacencyList[vertex1];
         adjacencyList[vertex1] = adjacencyList[vertex2];
         adjacencyList[vertex2] = temp;
 
+        // Swap degrees, and the places of vertex1 and vertex2 in their degree buckets
+        int tempDegree = degree[vertex1];
+        degree[vertex1] = degree[vertex2];
+        degree[vertex2] = tempDegree;
+        swapDegreePositions(vertex1, vertex2);
+
         // Update adjacency information for other vertices
         for (int i = 0; i < numVertices; i++) {
             if (i != vertex1 && i != vertex2) {
@@ -240,6 +344,14 @@ public class BasicGraph {
                 adjacencyList[i].set(vertex2, tempBit);
             }
         }
+
+        // An edge between vertex1 and vertex2 moved along with the rows, put it back in its columns
+        boolean tempBit = adjacencyList[vertex1].get(vertex1);
+        adjacencyList[vertex1].set(vertex1, adjacencyList[vertex1].get(vertex2));
+        adjacencyList[vertex1].set(vertex2, tempBit);
+        tempBit = adjacencyList[vertex2].get(vertex2);
+        adjacencyList[vertex2].set(vertex2, adjacencyList[vertex2].get(vertex1));
+        adjacencyList[vertex2].set(vertex1, tempBit);
     }
 
     // Method to order vertices based on their degrees, largest to smallest
@@ -275,6 +387,7 @@ public class BasicGraph {
         return vertices;
     }
 
+    @Override
     public int getNumVertices() {
         return numVertices;
     }
@@ -287,18 +400,42 @@ public class BasicGraph {
         return edges / 2; // Since the graph is undirected
     }
 
+    @Override
     public int getNumEdges() {
         return this.numEdges;
     }
 
-    // Method to calculate the degree of a vertex
+    // Method that returns the degree of a vertex
+    @Override
     public int degree(int vertex) {
-        return adjacencyList[vertex].cardinality();
+        return degree[vertex];
+    }
+
+    /**
+     * Get an active vertex with the highest degree in constant time
+     *
+     * @return Index of a vertex with maximum degree, or -1 if all vertices have been removed
+     */
+    public int maxDegreeVertex() {
+        return numActiveVertices == 0 ? -1 : degreeOrder[numVertices - 1];
+    }
+
+    /**
+     * Get all active vertices with the given degree, read from the degree buckets
+     *
+     * @param degree Degree of the vertices
+     * @return A new array holding the vertices with exactly that degree, in no particular order
+     */
+    public int[] verticesWithDegree(int degree) {
+        if (degree < 0 || degree > numVertices) {
+            return new int[0];
+        }
+        return Arrays.copyOfRange(degreeOrder, bucketStart[degree], bucketStart[degree + 1]);
     }
 
     // Method that returns the weight of a vertex
     public int weight(int vertex) {
-        return weights.get(vertex);
+        return weights[vertex];
     }
 
     // Method to calculate the degree of a vertex in the given BitSet of vertices
@@ -312,11 +449,13 @@ public class BasicGraph {
         return adjacencyList[vertex];
     }
 
+    // Removed vertices are skipped, their edges no longer need to be covered
+    @Override
     public boolean isVertexCover(BitSet vertices) {
         boolean vertexCover = true;
         int id = 0;
         while (vertexCover && id < numVertices) {
-            if (!vertices.get(id)) {
+            if (!vertices.get(id) && activeVertices.get(id)) {
                 BitSet check = (BitSet) adjacencyList[id].clone();
                 check.and(vertices);
                 vertexCover = (check.cardinality() == adjacencyList[id].cardinality());
@@ -330,13 +469,13 @@ public class BasicGraph {
     // Reorders the vertices of the graph in the order given by the List parameter
     public void reorderVertices(List<Integer> vertices) {
         BitSet[] newAdjacencyList = new BitSet[vertices.size()];
-        List<Integer> weights = new ArrayList<>();
+        int[] weights = new int[vertices.size()];
         for (int i = 0; i < vertices.size(); i++) {
             newAdjacencyList[i] = new BitSet(vertices.size());
         }
         for (int j = 0; j < vertices.size(); j++) {
             int vertexJ = vertices.get(j);
-            weights.add(this.weights.get(j));
+            weights[j] = this.weights[j];
             for (int k = 0; k < vertices.size(); k++) {
                 int vertexK = vertices.get(k);
                 if (isAdjacent(vertexJ, vertexK)) {
@@ -347,12 +486,24 @@ public class BasicGraph {
         }
         this.adjacencyList = newAdjacencyList;
         this.weights = weights;
+        initDegrees();
     }
 
     public boolean isAdjacent(int i, int j) {
         return adjacencyList[i].get(j);
     }
 
+    /**
+     * Change the weight of a single vertex
+     *
+     * @param vertex Index of the vertex
+     * @param weight New weight of the vertex
+     */
+    public void setWeight(int vertex, int weight) {
+        totalWeight += weight - weights[vertex];
+        weights[vertex] = weight;
+    }
+
     /**
      * Set the weights of the vertices to random values between minWeight and
      * maxWeight
@@ -364,8 +515,9 @@ public class BasicGraph {
     public void setRandomWeights(int seed, int minWeight, int maxWeight) {
         Random random = new Random(seed);
         for (int i = 0; i < numVertices; i++) {
-            this.weights.set(i, random.nextInt(maxWeight - minWeight + 1) + minWeight);
+            this.weights[i] = random.nextInt(maxWeight - minWeight + 1) + minWeight;
         }
+        this.totalWeight = sum(this.weights);
     }
 
     /**
@@ -383,51 +535,38 @@ public class BasicGraph {
      * @param vertexSet BitSet representing multiple vertices
      * @return Weight of the vertexSet
      */
+    @Override
     public int getWeight(BitSet vertexSet) {
+        // read the weights array directly, without copying the words of the set
         int weight = 0;
-        for (int i = vertexSet.nextSetBit(0); i >= 0; i = vertexSet.nextSetBit(i + 1)) {
-            weight += weights.get(i);
+        for (int vertex = vertexSet.nextSetBit(0); vertex >= 0; vertex = vertexSet.nextSetBit(vertex + 1)) {
+            weight += weights[vertex];
         }
         return weight;
     }
 
+    @Override
+    public long getTotalWeight() {
+        return totalWeight;
+    }
+
+    private static long sum(int[] weights) {
+        long sum = 0;
+        for (int weight : weights) {
+            sum += weight;
+        }
+        return sum;
+    }
+
     /**
      * Get the weight of a vertexS
      *
      * @param vertex Index of the vertex
      * @return Weight of the vertex
      */
+    @Override
     public int getWeight(int vertex) {
-        return weights.get(vertex);
-    }
-
-    public void exportToCWG(String filename) {
-        try (BufferedWriter writer = new BufferedWriter(new FileWriter(
-                "out/graphs/" + filename))) {
-            // Write configuration
-            writer.write("[configuration]\n");
-            writer.write("vertices " + numVertices + "\n");
-            writer.write("edges " + numEdges + "\n");
-
-            // Write weights
-            writer.write("\n[weights]\n");
-            for (int i = 0; i < numVertices; i++) {
-                writer.write(weights.get(i) + "\n");
-            }
-
-            // Write edges
-            writer.write("\n[edges]\n");
-            for (int i = 0; i < numVertices; i++) {
-                BitSet adjacency = adjacencyList[i];
-                for (int j = adjacency.nextSetBit(0); j >= 0; j = adjacency.nextSetBit(j + 1)) {
-                    if (i < j) { // To avoid duplicate edges
-                        writer.write(i + " " + j + "\n");
-                    }
-                }
-            }
-        } catch (IOException e) {
-            e.printStackTrace();
-        }
+        return weights[vertex];
     }
 
     public static void main(String[] args) {
@@ -0,0 +1,184 @@
+package be.ugent.graphs;
+
+import java.util.BitSet;
+
+/**
+ * Labels the connected components of the active vertices of a {@link BasicGraph} with an iterative breadth first
+ * search, so there is no recursion depth limit. All arrays are allocated once, labelling again after vertex removals
+ * allocates nothing.
+ * <p>
+ * The vertices of every component are kept together in one range of an array, so after removals a single component
+ * can be split again with {@link #split(int)} in time linear in its size, without touching the other components. A
+ * split keeps the removed vertices at the end of the range, so once they are restored it can be undone with
+ * {@link #restore(int, int, int)}, as a search does on its way back.
+ */
+public class ComponentLabeller {
+
+    // label of removed vertices
+    public static final int REMOVED = -1;
+    // label of vertices that are waiting to be labelled by split()
+    private static final int PENDING = -2;
+
+    private final BasicGraph graph;
+
+    // component of every vertex, or REMOVED
+    private final int[] componentOf;
+    // the vertices of component c are members[start[c]] up to (but excluding) members[start[c] + size[c]]
+    private final int[] members;
+    private final int[] start;
+    private final int[] size;
+    private int numComponents;
+
+    // breadth first search queue, holds the new order of the members of the component being split
+    private final int[] queue;
+
+    public ComponentLabeller(BasicGraph graph) {
+        this.graph = graph;
+        int numVertices = graph.getNumVertices();
+        this.componentOf = new int[numVertices];
+        this.members = new int[numVertices];
+        this.start = new int[numVertices];
+        this.size = new int[numVertices];
+        this.queue = new int[numVertices];
+    }
+
+    /**
+     * Label the components of the active vertices from scratch, in O(n + m)
+     *
+     * @return The number of components
+     */
+    public int label() {
+        reset();
+        if (numComponents > 0) {
+            // start from one component that holds everything, and let split() take it apart
+            split(0);
+        }
+        return numComponents;
+    }
+
+    /**
+     * Put all active vertices in component 0 without looking at their edges, {@link #split(int)} of component 0 then
+     * labels their components. Nothing is labelled if no vertex is active.
+     */
+    public void reset() {
+        numComponents = 0;
+        int count = 0;
+        for (int vertex = 0; vertex < graph.getNumVertices(); vertex++) {
+            if (graph.isActive(vertex)) {
+                componentOf[vertex] = 0;
+                members[count++] = vertex;
+            } else {
+                componentOf[vertex] = REMOVED;
+            }
+        }
+        if (count == 0) {
+            return;
+        }
+        numComponents = 1;
+        start[0] = 0;
+        size[0] = count;
+    }
+
+    /**
+     * Label a component again after vertices were removed from it. Its removed vertices are dropped, the first piece
+     * it falls apart in keeps its label and the other pieces get new labels, numbered from the number of labels in use
+     * before the split.
+     *
+     * @param component Label of the component
+     * @return The number of pieces, 0 if all of its vertices were removed
+     */
+    public int split(int component) {
+        int from = start[component];
+        int to = from + size[component];
+        for (int i = from; i < to; i++) {
+            int vertex = members[i];
+            componentOf[vertex] = graph.isActive(vertex) ? PENDING : REMOVED;
+        }
+
+        int pieces = 0;
+        int back = 0;
+        for (int i = from; i < to; i++) {
+            int seed = members[i];
+            if (componentOf[seed] != PENDING) {
+                continue;
+            }
+            int label = pieces == 0 ? component : numComponents++;
+            int front = back;
+            start[label] = from + front;
+            componentOf[seed] = label;
+            queue[back++] = seed;
+            while (front < back) {
+                // rows of active vertices only hold active vertices, all of them in the same component
+                BitSet adjacency = graph.getAdjacencyBitSet(queue[front++]);
+                for (int node = adjacency.nextSetBit(0); node >= 0; node = adjacency.nextSetBit(node + 1)) {
+                    if (componentOf[node] == PENDING) {
+                        componentOf[node] = label;
+                        queue[back++] = node;
+                    }
+                }
+            }
+            size[label] = from + back - start[label];
+            pieces++;
+        }
+        if (pieces == 0) {
+            size[component] = 0;
+        }
+        // the removed vertices go behind the pieces, where restore() finds them again
+        for (int i = from; i < to; i++) {
+            if (componentOf[members[i]] == REMOVED) {
+                queue[back++] = members[i];
+            }
+        }
+        System.arraycopy(queue, 0, members, from, back);
+        return pieces;
+    }
+
+    /**
+     * Undo {@link #split(int)} of a component, and every split of its pieces after it, once the removed vertices are
+     * restored. Runs in time linear in the size of the component.
+     *
+     * @param component     Label of the component that was split
+     * @param size          Size of the component before the split
+     * @param numComponents Number of labels in use before the split
+     */
+    public void restore(int component, int size, int numComponents) {
+        for (int i = start[component]; i < start[component] + size; i++) {
+            componentOf[members[i]] = component;
+        }
+        this.size[component] = size;
+        this.numComponents = numComponents;
+    }
+
+    /**
+     * @return The number of labels in use, some may belong to components whose vertices were all removed
+     */
+    public int getNumComponents() {
+        return numComponents;
+    }
+
+    /**
+     * @return The component of every vertex, or {@link #REMOVED}. Must not be modified.
+     */
+    public int[] getComponentOf() {
+        return componentOf;
+    }
+
+    public int getComponent(int vertex) {
+        return componentOf[vertex];
+    }
+
+    public int getComponentSize(int component) {
+        return size[component];
+    }
+
+    /**
+     * @return The vertices of the component as a new BitSet
+     */
+    public BitSet getVertices(int component) {
+        BitSet vertices = new BitSet(graph.getNumVertices());
+        for (int i = start[component]; i < start[component] + size[component]; i++) {
+            vertices.set(members[i]);
+        }
+        return vertices;
+    }
+}
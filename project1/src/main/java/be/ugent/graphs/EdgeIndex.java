@@ -0,0 +1,102 @@
+package be.ugent.graphs;
+
+/**
+ * Numbers the edges of a graph 0 .. m - 1, so per edge data fits in arrays of length m instead of n x n matrices.
+ * <p>
+ * Edge e connects getFrom(e) &lt; getTo(e), edges are numbered in increasing order of (from, to). The neighbours of
+ * vertex v are neighbours[offsets[v]] up to (but excluding) neighbours[offsets[v + 1]], in increasing order, and
+ * edges[i] is the id of the edge to neighbours[i]. Memory and construction time are O(n + m).
+ */
+public class EdgeIndex {
+
+    private final int numVertices;
+    private final int numEdges;
+    private final int[] from;
+    private final int[] to;
+    private final int[] offsets;
+    private final int[] neighbours;
+    private final int[] edges;
+
+    public EdgeIndex(Graph graph) {
+        this.numVertices = graph.getNumVertices();
+        this.offsets = new int[numVertices + 1];
+        for (int vertex = 0; vertex < numVertices; vertex++) {
+            offsets[vertex + 1] = offsets[vertex] + graph.degree(vertex);
+        }
+        this.neighbours = new int[offsets[numVertices]];
+        this.edges = new int[offsets[numVertices]];
+        this.numEdges = offsets[numVertices] / 2;
+        this.from = new int[numEdges];
+        this.to = new int[numEdges];
+
+        // filled[v] is the number of neighbours of v stored so far. Vertices are visited in increasing order and
+        // rows are increasing, so the lower neighbours of a vertex are stored before the vertex itself is visited,
+        // and all its rows stay sorted
+        int[] filled = new int[numVertices];
+        int[] edgeCount = new int[1];
+        for (int vertex = 0; vertex < numVertices; vertex++) {
+            int source = vertex;
+            graph.forEachNeighbour(vertex, node -> {
+                if (node > source) {
+                    int edge = edgeCount[0]++;
+                    from[edge] = source;
+                    to[edge] = node;
+                    int slot = offsets[source] + filled[source]++;
+                    neighbours[slot] = node;
+                    edges[slot] = edge;
+                    slot = offsets[node] + filled[node]++;
+                    neighbours[slot] = source;
+                    edges[slot] = edge;
+                }
+            });
+        }
+    }
+
+    public int getNumVertices() {
+        return numVertices;
+    }
+
+    public int getNumEdges() {
+        return numEdges;
+    }
+
+    public int degree(int vertex) {
+        return offsets[vertex + 1] - offsets[vertex];
+    }
+
+    /**
+     * @return The lower endpoint of the edge
+     */
+    public int getFrom(int edge) {
+        return from[edge];
+    }
+
+    /**
+     * @return The higher endpoint of the edge
+     */
+    public int getTo(int edge) {
+        return to[edge];
+    }
+
+    /**
+     * Offsets into {@link #getNeighbourArray()} and {@link #getEdgeArray()}, one per vertex plus a final sentinel.
+     * Exposed for tight loops, must not be modified.
+     */
+    public int[] getOffsets() {
+        return offsets;
+    }
+
+    /**
+     * Concatenated, sorted neighbour rows of all vertices. Exposed for tight loops, must not be modified.
+     */
+    public int[] getNeighbourArray() {
+        return neighbours;
+    }
+
+    /**
+     * Id of the edge to every entry of {@link #getNeighbourArray()}. Exposed for tight loops, must not be modified.
+     */
+    public int[] getEdgeArray() {
+        return edges;
+    }
+}
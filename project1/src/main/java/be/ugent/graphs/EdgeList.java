@@ -0,0 +1,160 @@
+package be.ugent.graphs;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Random;
+
+/**
+ * Growable list of edges plus vertex weights, used to collect a graph before deciding on its representation.
+ */
+public class EdgeList {
+
+    // Graphs up to this many vertices are always stored as BitSets, since the BitSet algorithms want them that way
+    private static final int DENSE_VERTEX_LIMIT = 2048;
+
+    private final int numVertices;
+    private final int[] weights;
+    private int[] sources;
+    private int[] destinations;
+    private int size;
+
+    public EdgeList(int numVertices) {
+        this.numVertices = numVertices;
+        this.weights = new int[numVertices];
+        Arrays.fill(this.weights, 1);
+        this.sources = new int[16];
+        this.destinations = new int[16];
+    }
+
+    public void addEdge(int source, int destination) {
+        if (size == sources.length) {
+            sources = Arrays.copyOf(sources, size * 2);
+            destinations = Arrays.copyOf(destinations, size * 2);
+        }
+        sources[size] = source;
+        destinations[size] = destination;
+        size++;
+    }
+
+    public void setWeight(int vertex, int weight) {
+        weights[vertex] = weight;
+    }
+
+    /**
+     * Set the weights of the vertices to random values between minWeight and maxWeight, drawing them in the same
+     * order as {@link BasicGraph#setRandomWeights(int, int, int)}
+     *
+     * @param seed      Random seed
+     * @param minWeight Lower bound for the random weights (inclusive)
+     * @param maxWeight Upper bound for the random weights (inclusive)
+     */
+    public void setRandomWeights(int seed, int minWeight, int maxWeight) {
+        Random random = new Random(seed);
+        for (int i = 0; i < numVertices; i++) {
+            weights[i] = random.nextInt(maxWeight - minWeight + 1) + minWeight;
+        }
+    }
+
+    public int getNumVertices() {
+        return numVertices;
+    }
+
+    /**
+     * @return Number of edges added, duplicates included
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return Number of distinct edges, an edge listed twice or in both directions counts once and self loops are not
+     * counted, as in the graphs built from this list
+     */
+    public int countDistinctEdges() {
+        long[] keys = new long[size];
+        int count = 0;
+        for (int i = 0; i < size; i++) {
+            if (sources[i] != destinations[i]) {
+                int low = Math.min(sources[i], destinations[i]);
+                int high = Math.max(sources[i], destinations[i]);
+                keys[count++] = (long) low * numVertices + high;
+            }
+        }
+        Arrays.sort(keys, 0, count);
+        int distinct = 0;
+        for (int i = 0; i < count; i++) {
+            if (i == 0 || keys[i] != keys[i - 1]) {
+                distinct++;
+            }
+        }
+        return distinct;
+    }
+
+    /**
+     * Decide whether a BitSet adjacency is the cheaper representation. A BitSet row costs n bits per vertex, a CSR
+     * row two ints per edge plus an offset and a weight per vertex.
+     */
+    public boolean isDense() {
+        return numVertices <= DENSE_VERTEX_LIMIT || (long) numVertices * numVertices <= 64L * ((long) size + numVertices);
+    }
+
+    /**
+     * @return The graph in the representation that takes the least memory
+     */
+    public Graph toGraph() {
+        return isDense() ? toBasicGraph() : toSparseGraph();
+    }
+
+    public BasicGraph toBasicGraph() {
+        BitSet[] adjacencyList = new BitSet[numVertices];
+        for (int i = 0; i < numVertices; i++) {
+            adjacencyList[i] = new BitSet(numVertices);
+        }
+        BasicGraph graph = new BasicGraph(adjacencyList, Arrays.copyOf(weights, numVertices));
+        for (int i = 0; i < size; i++) {
+            graph.addEdge(sources[i], destinations[i]);
+        }
+        return graph;
+    }
+
+    public SparseGraph toSparseGraph() {
+        // count both directions of every edge, self loops are dropped
+        int[] offsets = new int[numVertices + 1];
+        for (int i = 0; i < size; i++) {
+            if (sources[i] != destinations[i]) {
+                offsets[sources[i] + 1]++;
+                offsets[destinations[i] + 1]++;
+            }
+        }
+        for (int v = 0; v < numVertices; v++) {
+            offsets[v + 1] += offsets[v];
+        }
+
+        int[] neighbours = new int[offsets[numVertices]];
+        int[] fill = Arrays.copyOf(offsets, numVertices);
+        for (int i = 0; i < size; i++) {
+            if (sources[i] != destinations[i]) {
+                neighbours[fill[sources[i]]++] = destinations[i];
+                neighbours[fill[destinations[i]]++] = sources[i];
+            }
+        }
+
+        // sort every row and squeeze out duplicate edges in place
+        int write = 0;
+        int rowStart = 0;
+        for (int v = 0; v < numVertices; v++) {
+            int rowEnd = offsets[v + 1];
+            Arrays.sort(neighbours, rowStart, rowEnd);
+            offsets[v] = write;
+            for (int i = rowStart; i < rowEnd; i++) {
+                if (i == rowStart || neighbours[i] != neighbours[i - 1]) {
+                    neighbours[write++] = neighbours[i];
+                }
+            }
+            rowStart = rowEnd;
+        }
+        offsets[numVertices] = write;
+
+        return new SparseGraph(offsets, Arrays.copyOf(neighbours, write), Arrays.copyOf(weights, numVertices));
+    }
+}
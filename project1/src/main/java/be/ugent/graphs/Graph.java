@@ -0,0 +1,115 @@
+package be.ugent.graphs;
+
+import java.io.BufferedWriter;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.BitSet;
+import java.util.function.IntConsumer;
+
+/**
+ * Common view of an undirected, vertex weighted graph. Vertices are numbered 0 .. getNumVertices() - 1.
+ * <p>
+ * {@link BasicGraph} stores one BitSet row per vertex and is the representation of choice for small or dense graphs.
+ * {@link SparseGraph} stores the graph in compressed sparse row form and is used for large sparse graphs, where n²
+ * bits of adjacency would not fit in memory.
+ */
+public interface Graph {
+
+    int getNumVertices();
+
+    int getNumEdges();
+
+    /**
+     * Get the number of neighbours of a vertex
+     *
+     * @param vertex Index of the vertex
+     * @return Degree of the vertex
+     */
+    int degree(int vertex);
+
+    /**
+     * Get the weight of a vertex
+     *
+     * @param vertex Index of the vertex
+     * @return Weight of the vertex
+     */
+    int getWeight(int vertex);
+
+    /**
+     * @return Sum of the weights of all vertices
+     */
+    long getTotalWeight();
+
+    boolean hasEdge(int source, int destination);
+
+    /**
+     * Get the neighbours of a vertex, in increasing order
+     *
+     * @param vertex Index of the vertex
+     * @return A new array holding the neighbours of the vertex
+     */
+    int[] neighbours(int vertex);
+
+    /**
+     * Call the given action for every neighbour of a vertex, in increasing order, without allocating
+     *
+     * @param vertex Index of the vertex
+     * @param action Action to call for every neighbour
+     */
+    void forEachNeighbour(int vertex, IntConsumer action);
+
+    Graph copy();
+
+    /**
+     * Get the weight of a vertexSet
+     *
+     * @param vertexSet BitSet representing multiple vertices
+     * @return Weight of the vertexSet
+     */
+    default int getWeight(BitSet vertexSet) {
+        int weight = 0;
+        for (int i = vertexSet.nextSetBit(0); i >= 0; i = vertexSet.nextSetBit(i + 1)) {
+            weight += getWeight(i);
+        }
+        return weight;
+    }
+
+    default boolean isVertexCover(BitSet vertices) {
+        for (int vertex = vertices.nextClearBit(0); vertex < getNumVertices(); vertex = vertices.nextClearBit(vertex + 1)) {
+            for (int neighbour : neighbours(vertex)) {
+                if (!vertices.get(neighbour)) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    default void exportToCWG(String filename) {
+        try (BufferedWriter writer = new BufferedWriter(new FileWriter(
+                "out/graphs/" + filename))) {
+            // Write configuration
+            writer.write("[configuration]\n");
+            writer.write("vertices " + getNumVertices() + "\n");
+            writer.write("edges " + getNumEdges() + "\n");
+
+            // Write weights
+            writer.write("\n[weights]\n");
+            for (int i = 0; i < getNumVertices(); i++) {
+                writer.write(getWeight(i) + "\n");
+            }
+
+            // Write edges
+            writer.write("\n[edges]\n");
+            for (int i = 0; i < getNumVertices(); i++) {
+                for (int j : neighbours(i)) {
+                    if (i < j) { // To avoid duplicate edges
+                        writer.write(i + " " + j + "\n");
+                    }
+                }
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+}
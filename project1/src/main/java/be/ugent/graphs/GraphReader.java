@@ -0,0 +1,173 @@
+package be.ugent.graphs;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.file.Paths;
+import java.util.StringTokenizer;
+
+/**
+ * Reads .clq, .cwg and .mtx graph files from the resources into an {@link EdgeList}, so the caller can choose between
+ * a BitSet and a CSR representation.
+ */
+public class GraphReader {
+
+    private static final Logger logger = LogManager.getLogger(GraphReader.class);
+
+    private GraphReader() {
+    }
+
+    /**
+     * Read a graph and store it as a {@link BasicGraph} when it is small or dense, or as a {@link SparseGraph}
+     * otherwise.
+     *
+     * @param graphFilename Path of the graph file, relative to the resources
+     * @return The graph in the representation that takes the least memory
+     */
+    public static Graph read(String graphFilename) {
+        EdgeList edgeList = readEdgeList(graphFilename);
+        Graph graph = edgeList.toGraph();
+        logger.debug("Read {} as {}", graphFilename, graph.getClass().getSimpleName());
+        return graph;
+    }
+
+    public static EdgeList readEdgeList(String graphFilename) {
+        EdgeList edgeList = null;
+        int expectedNumberOfEdges = -1; // Initialize with a sentinel value
+
+        URL res = GraphReader.class.getClassLoader().getResource(graphFilename);
+        File file = null;
+        try {
+            file = Paths.get(res.toURI()).toFile();
+            try (BufferedReader br = new BufferedReader(new FileReader(file))) {
+                String line;
+                if (graphFilename.endsWith(".clq")) {
+                    while ((line = br.readLine()) != null) {
+                        line = line.trim();
+                        // Skip comment lines or empty lines
+                        if (line.isEmpty() || line.charAt(0) == 'c') {
+                            continue;
+                        }
+                        // Process problem line
+                        if (line.charAt(0) == 'p') {
+                            StringTokenizer st = new StringTokenizer(line);
+                            st.nextToken(); // skip 'p' token
+                            st.nextToken(); // skip problem type (e.g., 'edge')
+                            edgeList = new EdgeList(Integer.parseInt(st.nextToken()));
+                            expectedNumberOfEdges = Integer.parseInt(st.nextToken()); // Store the expected number of
+                                                                                      // edges
+                        } else if (line.charAt(0) == 'e') {
+                            // Process edge line
+                            String[] parts = line.split(" ");
+                            int source = Integer.parseInt(parts[1]) - 1; // DIMACS vertices start from 1
+                            int destination = Integer.parseInt(parts[2]) - 1; // DIMACS vertices start from 1
+                            edgeList.addEdge(source, destination);
+                        }
+                    }
+                    // the header counts the edges of the graph, so an edge that is listed twice counts once
+                    int actualNumberOfEdges = edgeList.countDistinctEdges();
+                    if (actualNumberOfEdges != expectedNumberOfEdges) {
+                        logger.error(
+                                "Error: The actual number of edges ({}) does not match the expected number ({}).",
+                                actualNumberOfEdges,
+                                expectedNumberOfEdges);
+                        logger.error("Exiting...");
+                        System.exit(1);
+                    }
+                } else if (graphFilename.endsWith(".cwg")) {
+                    boolean isEdgeSection = false;
+                    boolean isWeightSection = false;
+                    boolean isConfigSection = false;
+                    int vertexCounter = 0;
+                    while ((line = br.readLine()) != null) {
+                        line = line.trim();
+                        if (!line.isEmpty() && line.charAt(0) != '#') {
+                            if (line.charAt(0) == '[' && line.charAt(line.length() - 1) == ']' && line.length() > 2) {
+                                switch (line) {
+                                    case "[edges]" -> {
+                                        isEdgeSection = true;
+                                        isWeightSection = false;
+                                        isConfigSection = false;
+                                    }
+                                    case "[weights]" -> {
+                                        isWeightSection = true;
+                                        isEdgeSection = false;
+                                        isConfigSection = false;
+                                    }
+                                    case "[configuration]" -> {
+                                        isConfigSection = true;
+                                        isEdgeSection = false;
+                                        isWeightSection = false;
+                                    }
+                                    default -> {
+                                        // Do nothing
+                                    }
+                                }
+                            } else {
+
+                                if (isConfigSection) {
+                                    if (line.startsWith("vertices")) {
+                                        edgeList = new EdgeList(Integer.parseInt(line.split(" ")[1]));
+                                    }
+                                } else if (isWeightSection) {
+                                    if (edgeList == null) {
+                                        throw new IllegalStateException(
+                                                "Weights section should come after the configuration section");
+                                    }
+                                    if (vertexCounter >= edgeList.getNumVertices()) {
+                                        throw new IllegalStateException(
+                                                "Number of weights exceeds the number of vertices");
+                                    }
+                                    edgeList.setWeight(vertexCounter, Integer.parseInt(line));
+                                    vertexCounter++;
+                                } else if (isEdgeSection) {
+                                    String[] vertices = line.split(" ");
+                                    int source = Integer.parseInt(vertices[0]);
+                                    int destination = Integer.parseInt(vertices[1]);
+                                    edgeList.addEdge(source, destination);
+                                }
+                            }
+                        }
+
+                    }
+                } else if (graphFilename.endsWith(".mtx")) {
+                    while ((line = br.readLine()) != null) {
+                        line = line.trim();
+                        // Skip comment lines
+                        if (line.isEmpty() || line.charAt(0) == '%') {
+                            continue;
+                        }
+                        // Process problem line
+                        String[] parts = line.split(" ");
+                        if (parts.length == 3) { // This line contains the number of vertices and edges
+                            edgeList = new EdgeList(Integer.parseInt(parts[0]));
+                        } else if (parts.length == 2) { // This line contains an edge
+                            int source = Integer.parseInt(parts[0]) - 1; // MTX vertices start from 1
+                            int destination = Integer.parseInt(parts[1]) - 1; // MTX vertices start from 1
+                            edgeList.addEdge(source, destination);
+                        }
+                    }
+                } else {
+                    logger.error("Error: Unsupported file format.");
+                    logger.error("Exiting...");
+                    System.exit(1);
+                }
+            } catch (IOException e) {
+                logger.error("Error reading file: {}", e.getMessage());
+                logger.error("Exiting...");
+                System.exit(1);
+            }
+        } catch (URISyntaxException e) {
+            logger.error("Error reading file: {}", e.getMessage());
+            logger.error("Exiting...");
+            System.exit(1);
+        }
+        return edgeList;
+    }
+}
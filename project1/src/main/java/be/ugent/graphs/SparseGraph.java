@@ -0,0 +1,122 @@
+package be.ugent.graphs;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.function.IntConsumer;
+
+/**
+ * Graph in compressed sparse row form: the neighbours of vertex v are neighbours[offsets[v]] up to (but excluding)
+ * neighbours[offsets[v + 1]], sorted in increasing order. Memory is O(n + m), so graphs with hundreds of thousands of
+ * vertices and a few edges per vertex fit in a few MB.
+ */
+public class SparseGraph implements Graph {
+
+    private final int[] offsets;
+    private final int[] neighbours;
+    private final int[] weights;
+    private final long totalWeight;
+
+    public SparseGraph(int[] offsets, int[] neighbours, int[] weights) {
+        this.offsets = offsets;
+        this.neighbours = neighbours;
+        this.weights = weights;
+        long sum = 0;
+        for (int weight : weights) {
+            sum += weight;
+        }
+        this.totalWeight = sum;
+    }
+
+    @Override
+    public int getNumVertices() {
+        return weights.length;
+    }
+
+    @Override
+    public int getNumEdges() {
+        return neighbours.length / 2;
+    }
+
+    @Override
+    public int degree(int vertex) {
+        return offsets[vertex + 1] - offsets[vertex];
+    }
+
+    @Override
+    public int getWeight(int vertex) {
+        return weights[vertex];
+    }
+
+    @Override
+    public long getTotalWeight() {
+        return totalWeight;
+    }
+
+    @Override
+    public boolean hasEdge(int source, int destination) {
+        return Arrays.binarySearch(neighbours, offsets[source], offsets[source + 1], destination) >= 0;
+    }
+
+    @Override
+    public int[] neighbours(int vertex) {
+        return Arrays.copyOfRange(neighbours, offsets[vertex], offsets[vertex + 1]);
+    }
+
+    @Override
+    public void forEachNeighbour(int vertex, IntConsumer action) {
+        for (int i = offsets[vertex]; i < offsets[vertex + 1]; i++) {
+            action.accept(neighbours[i]);
+        }
+    }
+
+    /**
+     * Offsets into {@link #getNeighbourArray()}, one per vertex plus a final sentinel. Exposed for tight loops, must
+     * not be modified.
+     */
+    public int[] getOffsets() {
+        return offsets;
+    }
+
+    /**
+     * Concatenated, sorted neighbour rows of all vertices. Exposed for tight loops, must not be modified.
+     */
+    public int[] getNeighbourArray() {
+        return neighbours;
+    }
+
+    @Override
+    public SparseGraph copy() {
+        // the graph is immutable, so the arrays can be shared
+        return new SparseGraph(offsets, neighbours, weights);
+    }
+
+    /**
+     * Build a new graph on the given vertices, numbered in increasing order: vertex i of the subgraph is the i-th set
+     * bit of vertices. Only the edges between the given vertices are kept.
+     *
+     * @param vertices Vertices of this graph to keep
+     * @return A new graph with vertices.cardinality() vertices
+     */
+    public SparseGraph inducedSubgraph(BitSet vertices) {
+        int[] newIds = new int[getNumVertices()];
+        int size = 0;
+        for (int vertex = vertices.nextSetBit(0); vertex >= 0; vertex = vertices.nextSetBit(vertex + 1)) {
+            newIds[vertex] = size++;
+        }
+        // rows stay sorted, since the new ids are increasing in the old ones
+        int[] newOffsets = new int[size + 1];
+        int[] newNeighbours = new int[neighbours.length];
+        int[] newWeights = new int[size];
+        int count = 0;
+        for (int vertex = vertices.nextSetBit(0); vertex >= 0; vertex = vertices.nextSetBit(vertex + 1)) {
+            for (int i = offsets[vertex]; i < offsets[vertex + 1]; i++) {
+                if (vertices.get(neighbours[i])) {
+                    newNeighbours[count++] = newIds[neighbours[i]];
+                }
+            }
+            newOffsets[newIds[vertex] + 1] = count;
+            newWeights[newIds[vertex]] = weights[vertex];
+        }
+        return new SparseGraph(newOffsets, Arrays.copyOf(newNeighbours, count), newWeights);
+    }
+}
@@ -1,30 +1,25 @@
 package be.ugent.util;
 
-import be.ugent.graphs.BasicGraph;
+import be.ugent.graphs.EdgeList;
+import be.ugent.graphs.Graph;
 
-import java.util.ArrayList;
-import java.util.BitSet;
-import java.util.Collections;
 import java.util.Random;
 
 public class GraphGenerator {
 
-    public static BasicGraph generate(int vertexCount, float edgeProbability) {
-        BitSet[] adjacencyList = new BitSet[vertexCount];
-        for (int i = 0; i < vertexCount; i++) {
-            adjacencyList[i] = new BitSet(vertexCount);
-        }
-        BasicGraph graph = new BasicGraph(adjacencyList, new ArrayList<>(Collections.nCopies(vertexCount, 1)));
-        graph.setRandomWeights(42 + vertexCount);
+    public static Graph generate(int vertexCount, float edgeProbability) {
+        // collect the edges first, so sparse graphs never need n² bits of adjacency
+        EdgeList edgeList = new EdgeList(vertexCount);
+        edgeList.setRandomWeights(42 + vertexCount, 1, 200);
         Random random = new Random((long) 42 + vertexCount);
         for (int i = 0; i < vertexCount; i++) {
             for (int j = i + 1; j < vertexCount; j++) {
                 if (random.nextFloat() < edgeProbability) {
-                    graph.addEdge(i, j);
+                    edgeList.addEdge(i, j);
                 }
             }
         }
-        return graph;
+        return edgeList.toGraph();
     }
 
     public static void main(String[] args) {
@@ -49,7 +44,7 @@ public class GraphGenerator {
         for (int count : vertexCounts) {
             for (float edgeProbability : edgeProbabilities) {
                 if (count * edgeProbability >= 2) {
-                    BasicGraph graph = generate(count, edgeProbability);
+                    Graph graph = generate(count, edgeProbability);
                     graph.exportToCWG("graph_" + count + "_" + edgeProbability + ".cwg");
                 }
             }